@@ -11,16 +11,21 @@ package OOPS.Interfaces;
  */
 
 
+/*
+ * Amounts are fixed-point longs in minor units (cents), see Money: 5000.00 is passed as 500000.
+ * This keeps every deposit and withdrawal exact and allocation-free, and overflow throws instead of wrapping.
+ */
+
 // Interface defining behavior for an account
 interface Account {
-    // Abstract method for depositing money (to be implemented by subclasses)
-    void deposit(double amount);
+    // Abstract method for depositing money in minor units (to be implemented by subclasses)
+    void deposit(long amount);
 
-    // Abstract method for withdrawing money (to be implemented by subclasses)
-    void withdraw(double amount);
+    // Abstract method for withdrawing money in minor units (to be implemented by subclasses)
+    void withdraw(long amount);
 
-    // Abstract method for checking balance (to be implemented by subclasses)
-    double checkBalance();
+    // Abstract method for checking balance in minor units (to be implemented by subclasses)
+    long checkBalance();
 
     // Abstract method for displaying account information (to be implemented by subclasses)
     void displayAccountInfo();
@@ -29,10 +34,10 @@ interface Account {
 // Abstract class for AccountBase providing common functionality for all accounts
  abstract class AccountBase implements Account {
     protected String accountNumber;
-    protected double balance;
+    protected long balance; // Minor units
 
     // Constructor
-    public AccountBase(String accountNumber, double balance) {
+    public AccountBase(String accountNumber, long balance) {
         this.accountNumber = accountNumber;
         this.balance = balance;
     }
@@ -46,27 +51,27 @@ interface Account {
 
 // Concrete class for SavingsAccount implementing Account interface
 class SavingsAccount extends AccountBase {
-    private double interestRate;
+    private int interestRateBasisPoints; // 1 basis point = 0.01%, so 350 is 3.50%
 
     // Constructor
-    public SavingsAccount(String accountNumber, double balance, double interestRate) {
+    public SavingsAccount(String accountNumber, long balance, int interestRateBasisPoints) {
         super(accountNumber, balance);
-        this.interestRate = interestRate;
+        this.interestRateBasisPoints = interestRateBasisPoints;
     }
 
     // Implementing deposit method from Account interface
     @Override
-    public void deposit(double amount) {
-        balance += amount;
-        System.out.printf("Deposited %.2f. Current Balance: %.2f%n", amount, balance);
+    public void deposit(long amount) {
+        balance = Money.add(balance, amount);
+        System.out.printf("Deposited %s. Current Balance: %s%n", Money.format(amount), Money.format(balance));
     }
 
     // Implementing withdraw method from Account interface
     @Override
-    public void withdraw(double amount) {
+    public void withdraw(long amount) {
         if (balance >= amount) {
-            balance -= amount;
-            System.out.printf("Withdrawn %.2f. Current Balance: %.2f%n", amount, balance);
+            balance = Money.subtract(balance, amount);
+            System.out.printf("Withdrawn %s. Current Balance: %s%n", Money.format(amount), Money.format(balance));
         } else {
             System.out.println("Insufficient funds!");
         }
@@ -74,40 +79,57 @@ class SavingsAccount extends AccountBase {
 
     // Implementing checkBalance method from Account interface
     @Override
-    public double checkBalance() {
+    public long checkBalance() {
         return balance;
     }
 
+    public int getInterestRateBasisPoints() {
+        return interestRateBasisPoints;
+    }
+
+    // Stores the result of a bulk InterestAccrual run (see InterestAccrual.writeBack)
+    void setBalance(long balance) {
+        this.balance = balance;
+    }
+
+    // Adds one day of interest, rounded to the nearest minor unit (the same formula as InterestAccrual's bulk run)
+    public void accrueDailyInterest() {
+        long interest = InterestFormula.dailyInterest(balance, InterestFormula.dailyFactor(interestRateBasisPoints));
+        balance = Money.add(balance, interest);
+        System.out.printf("Interest %s. Current Balance: %s%n", Money.format(interest), Money.format(balance));
+    }
+
     // Implementing displayAccountInfo method from AccountBase abstract class
     @Override
     public void displayAccountInfo() {
-        System.out.printf("Savings Account %s - Balance: %.2f - Interest Rate: %.2f%%%n", accountNumber, balance, interestRate);
+        System.out.printf("Savings Account %s - Balance: %s - Interest Rate: %d.%02d%%%n", accountNumber,
+                Money.format(balance), interestRateBasisPoints / 100, interestRateBasisPoints % 100);
     }
 }
 
 // Concrete class for CheckingAccount implementing Account interface
 class CheckingAccount extends AccountBase {
-    private double overdraftLimit;
+    private long overdraftLimit; // Minor units
 
     // Constructor
-    public CheckingAccount(String accountNumber, double balance, double overdraftLimit) {
+    public CheckingAccount(String accountNumber, long balance, long overdraftLimit) {
         super(accountNumber, balance);
         this.overdraftLimit = overdraftLimit;
     }
 
     // Implementing deposit method from Account interface
     @Override
-    public void deposit(double amount) {
-        balance += amount;
-        System.out.printf("Deposited %.2f. Current Balance: %.2f%n", amount, balance);
+    public void deposit(long amount) {
+        balance = Money.add(balance, amount);
+        System.out.printf("Deposited %s. Current Balance: %s%n", Money.format(amount), Money.format(balance));
     }
 
     // Implementing withdraw method from Account interface
     @Override
-    public void withdraw(double amount) {
-        if (balance + overdraftLimit >= amount) {
-            balance -= amount;
-            System.out.printf("Withdrawn %.2f. Current Balance: %.2f%n", amount, balance);
+    public void withdraw(long amount) {
+        if (Money.add(balance, overdraftLimit) >= amount) {
+            balance = Money.subtract(balance, amount);
+            System.out.printf("Withdrawn %s. Current Balance: %s%n", Money.format(amount), Money.format(balance));
         } else {
             System.out.println("Exceeded overdraft limit!");
         }
@@ -115,14 +137,15 @@ class CheckingAccount extends AccountBase {
 
     // Implementing checkBalance method from Account interface
     @Override
-    public double checkBalance() {
+    public long checkBalance() {
         return balance;
     }
 
     // Implementing displayAccountInfo method from AccountBase abstract class
     @Override
     public void displayAccountInfo() {
-        System.out.printf("Checking Account %s - Balance: %.2f - Overdraft Limit: %.2f%n", accountNumber, balance, overdraftLimit);
+        System.out.printf("Checking Account %s - Balance: %s - Overdraft Limit: %s%n", accountNumber,
+                Money.format(balance), Money.format(overdraftLimit));
     }
 }
 
@@ -131,19 +154,20 @@ public class BankingSystem {
         // Practical Interface Example: Banking System
 
         // Creating instances of SavingsAccount and CheckingAccount
-        Account savingsAccount = new SavingsAccount("SAV-001", 5000.00, 3.5);
-        Account checkingAccount = new CheckingAccount("CHK-001", 3000.00, 1000.00);
+        Account savingsAccount = new SavingsAccount("SAV-001", Money.parse("5000.00"), 350);
+        Account checkingAccount = new CheckingAccount("CHK-001", Money.parse("3000.00"), Money.parse("1000.00"));
 
         // Depositing and withdrawing money from savings account
         savingsAccount.displayAccountInfo();
-        savingsAccount.deposit(1000.00);
-        savingsAccount.withdraw(200.00);
-        System.out.printf("Updated Balance: %.2f%n", savingsAccount.checkBalance());
+        savingsAccount.deposit(Money.parse("1000.00"));
+        savingsAccount.withdraw(Money.parse("200.00"));
+        System.out.printf("Updated Balance: %s%n", Money.format(savingsAccount.checkBalance()));
+        ((SavingsAccount) savingsAccount).accrueDailyInterest(); // Not part of the Account contract
 
         // Depositing and withdrawing money from checking account
         checkingAccount.displayAccountInfo();
-        checkingAccount.deposit(500.00);
-        checkingAccount.withdraw(4000.00);
-        System.out.printf("Updated Balance: %.2f%n", checkingAccount.checkBalance());
+        checkingAccount.deposit(Money.parse("500.00"));
+        checkingAccount.withdraw(Money.parse("4000.00"));
+        System.out.printf("Updated Balance: %s%n", Money.format(checkingAccount.checkBalance()));
     }
 }
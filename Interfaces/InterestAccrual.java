@@ -0,0 +1,279 @@
+package OOPS.Interfaces;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Bulk Interest Accrual over a Struct-of-Arrays:
+ *
+ * Purpose:
+ * Accrues one day of interest on millions of savings balances at once (end-of-day run). Instead of walking millions
+ * of SavingsAccount objects scattered over the heap, the balances and rates live in two parallel long arrays,
+ * which are read strictly sequentially: cache and prefetcher friendly, and ready for SIMD.
+ *
+ * Notes:
+ * 1. Fixed-point arithmetic: every path uses InterestFormula, the same formula as SavingsAccount.
+ *    of(accounts) loads SavingsAccount balances and rates, writeBack(accounts) stores the accrued balances,
+ *    so a bulk run gives every account exactly what accrueDailyInterest() would have.
+ *
+ * 2. All or nothing:
+ *    - The run first checks every balance against InterestFormula.MAX_BALANCE and only then writes anything, so
+ *      a balance that could overflow raises an ArithmeticException with all balances still untouched, instead of
+ *      leaving some slices accrued and others not.
+ *
+ * 3. Vector path:
+ *    - With the jdk.incubator.vector module present (run with --add-modules jdk.incubator.vector),
+ *      VectorAccrualKernel processes as many accounts per instruction as the CPU's widest long vector holds.
+ *      It is loaded by name, so this class (and SavingsAccount) compiles and runs without the module.
+ *    - Without it, the scalar loop is used. Both evaluate exactly the same integer expression, and integer
+ *      multiply, add and shift have exactly one correct result, so both paths give bit-identical balances.
+ *
+ * 4. Parallelism:
+ *    - The account range is split recursively on the common fork-join pool down to slices of SLICE_ACCOUNTS,
+ *      once for the check (CheckSlice, a RecursiveTask) and once for the accrual (AccrualSlice, a RecursiveAction);
+ *      every accrual slice writes only its own part of the arrays.
+ */
+final class InterestAccrual {
+    private static final int SLICE_ACCOUNTS = 1 << 16;
+    private static final Kernel VECTOR_KERNEL = loadVectorKernel(); // null if unavailable
+
+    private final long[] balances;     // Minor units
+    private final long[] dailyFactors; // Daily rate as a binary fraction, see InterestFormula.dailyFactor()
+
+    // Implemented by VectorAccrualKernel, the only code that needs jdk.incubator.vector
+    interface Kernel {
+        int lanes();
+
+        // Accrues [from, upper) for the largest upper <= to that is a whole number of vectors, and returns upper
+        int accrue(long[] balances, long[] dailyFactors, int from, int to);
+    }
+
+    InterestAccrual(int accounts) {
+        this(new long[accounts], new long[accounts]);
+    }
+
+    private InterestAccrual(long[] balances, long[] dailyFactors) {
+        this.balances = balances;
+        this.dailyFactors = dailyFactors;
+    }
+
+    // Account i of the run is accounts.get(i)
+    static InterestAccrual of(List<SavingsAccount> accounts) {
+        InterestAccrual accrual = new InterestAccrual(accounts.size());
+        for (int i = 0; i < accounts.size(); i++) {
+            SavingsAccount account = accounts.get(i);
+            accrual.set(i, account.checkBalance(), account.getInterestRateBasisPoints());
+        }
+        return accrual;
+    }
+
+    // Stores the balances back into the accounts this run was built from (same list, same order)
+    void writeBack(List<SavingsAccount> accounts) {
+        if (accounts.size() != balances.length) {
+            throw new IllegalArgumentException("Run has " + balances.length + " accounts, list has " + accounts.size());
+        }
+        for (int i = 0; i < balances.length; i++) {
+            accounts.get(i).setBalance(balances[i]);
+        }
+    }
+
+    static boolean isVectorAvailable() {
+        return VECTOR_KERNEL != null;
+    }
+
+    public void set(int account, long balance, int rateBasisPoints) {
+        balances[account] = balance;
+        dailyFactors[account] = InterestFormula.dailyFactor(rateBasisPoints);
+    }
+
+    public long getBalance(int account) {
+        return balances[account];
+    }
+
+    public int size() {
+        return balances.length;
+    }
+
+    // Copy of the balances that shares the (read-only during accrual) rates; used to compare paths
+    InterestAccrual copyBalances() {
+        return new InterestAccrual(balances.clone(), dailyFactors);
+    }
+
+    boolean sameBalances(InterestAccrual other) {
+        return Arrays.equals(balances, other.balances);
+    }
+
+    // End-of-day run: vectorized if possible, split over the fork-join pool
+    public void accrueDaily() {
+        accrueDaily(isVectorAvailable(), true);
+    }
+
+    void accrueDaily(boolean vectorized, boolean parallel) {
+        if (vectorized && !isVectorAvailable()) {
+            throw new IllegalStateException("jdk.incubator.vector is not available");
+        }
+        int outOfRange = parallel
+                ? ForkJoinPool.commonPool().invoke(new CheckSlice(0, balances.length))
+                : firstOutOfRange(0, balances.length);
+        if (outOfRange >= 0) {
+            throw new ArithmeticException("Balance too large for interest accrual: " + balances[outOfRange]
+                    + " (account " + outOfRange + ")");
+        }
+        if (parallel) {
+            ForkJoinPool.commonPool().invoke(new AccrualSlice(0, balances.length, vectorized));
+        } else {
+            accrue(0, balances.length, vectorized);
+        }
+    }
+
+    // First account in [from, to) whose balance could overflow the formula, or -1; writes nothing
+    private int firstOutOfRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!InterestFormula.inRange(balances[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Every balance in [from, to) has been checked
+    private void accrue(int from, int to, boolean vectorized) {
+        if (vectorized) {
+            from = VECTOR_KERNEL.accrue(balances, dailyFactors, from, to); // Returns where the tail starts
+        }
+        for (int i = from; i < to; i++) {
+            balances[i] += InterestFormula.interest(balances[i], dailyFactors[i]);
+        }
+    }
+
+    @SuppressWarnings("serial") // Fork-join tasks are never serialized
+    private final class AccrualSlice extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final boolean vectorized;
+
+        AccrualSlice(int from, int to, boolean vectorized) {
+            this.from = from;
+            this.to = to;
+            this.vectorized = vectorized;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SLICE_ACCOUNTS) {
+                accrue(from, to, vectorized);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new AccrualSlice(from, middle, vectorized), new AccrualSlice(middle, to, vectorized));
+        }
+    }
+
+    // Read-only check pass: the first out-of-range account of its range, or -1
+    @SuppressWarnings("serial") // Fork-join tasks are never serialized
+    private final class CheckSlice extends RecursiveTask<Integer> {
+        private final int from;
+        private final int to;
+
+        CheckSlice(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= SLICE_ACCOUNTS) {
+                return firstOutOfRange(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            CheckSlice right = new CheckSlice(middle, to);
+            right.fork();
+            int left = new CheckSlice(from, middle).compute();
+            int rightResult = right.join();
+            return left >= 0 ? left : rightResult;
+        }
+    }
+
+    // The kernel is only loaded if the module is in the boot layer, otherwise the scalar path is used
+    private static Kernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            Kernel kernel = (Kernel) Class.forName(InterestAccrual.class.getPackageName() + ".VectorAccrualKernel")
+                    .getDeclaredConstructor().newInstance();
+            return kernel.lanes() > 1 ? kernel : null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
+
+/*
+ * End-of-day run over 20 million accounts (or args[0]): scalar on one thread, scalar on the fork-join pool and,
+ * if available, vectorized on the fork-join pool. Checks that all paths produce the same balances.
+ *
+ * Run with: java --add-modules jdk.incubator.vector OOPS.Interfaces.InterestAccrualBenchmark [accounts] [days]
+ */
+class InterestAccrualBenchmark {
+    public static void main(String[] args) {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        checkAgainstSavingsAccounts();
+
+        InterestAccrual base = new InterestAccrual(accounts);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < accounts; i++) {
+            base.set(i, random.nextLong(Money.ofMajor(1_000_000)), random.nextInt(501)); // Up to 1M, 0..5%
+        }
+        System.out.printf("%,d accounts, %d day(s), vector API: %s%n", accounts, days,
+                InterestAccrual.isVectorAvailable() ? "yes" : "no (scalar fallback)");
+
+        InterestAccrual reference = base.copyBalances();
+        report("scalar, 1 thread", reference, false, false, days);
+
+        InterestAccrual parallel = base.copyBalances();
+        report("scalar, fork-join", parallel, false, true, days);
+        System.out.println("  identical to scalar: " + parallel.sameBalances(reference));
+
+        if (InterestAccrual.isVectorAvailable()) {
+            InterestAccrual vector = base.copyBalances();
+            report("vector, fork-join", vector, true, true, days);
+            System.out.println("  identical to scalar: " + vector.sameBalances(reference));
+        }
+    }
+
+    // A bulk run over SavingsAccounts must leave them exactly where accrueDailyInterest() would
+    private static void checkAgainstSavingsAccounts() {
+        List<SavingsAccount> bulk = List.of(new SavingsAccount("S1", Money.ofMajor(5_000), 350),
+                new SavingsAccount("S2", Money.ofMajor(123_456), 125), new SavingsAccount("S3", 99, 500));
+        List<SavingsAccount> single = List.of(new SavingsAccount("S1", Money.ofMajor(5_000), 350),
+                new SavingsAccount("S2", Money.ofMajor(123_456), 125), new SavingsAccount("S3", 99, 500));
+
+        InterestAccrual accrual = InterestAccrual.of(bulk);
+        accrual.accrueDaily();
+        accrual.writeBack(bulk);
+        boolean same = true;
+        for (int i = 0; i < single.size(); i++) {
+            single.get(i).accrueDailyInterest();
+            same &= single.get(i).checkBalance() == bulk.get(i).checkBalance();
+        }
+        System.out.println("Bulk run identical to SavingsAccount.accrueDailyInterest: " + same);
+    }
+
+    private static void report(String name, InterestAccrual accrual, boolean vectorized, boolean parallel, int days) {
+        long best = Long.MAX_VALUE;
+        for (int day = 0; day < days; day++) {
+            long start = System.nanoTime();
+            accrual.accrueDaily(vectorized, parallel);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-20s best day %8.1f ms (%,.0f accounts/sec)%n", name, best / 1e6,
+                accrual.size() * 1e9 / best);
+    }
+}
@@ -0,0 +1,53 @@
+package OOPS.Interfaces;
+
+/**
+ * Daily Interest Formula (fixed-point):
+ *
+ * Purpose:
+ * The one interest formula shared by SavingsAccount and the bulk InterestAccrual run, so a single account and the
+ * end-of-day run always agree to the minor unit. Plain long arithmetic only: it needs no incubator module.
+ *
+ * Notes:
+ * 1. No floating point and no division per balance:
+ *    - Balances are Money minor units. A rate in basis points is turned once into a daily factor,
+ *      the daily rate as a binary fraction with FRACTION_BITS bits: factor = round(rate / 10000 / 365 * 2^32).
+ *    - interest = (balance * factor + 2^31) >> 32, i.e. balance x daily rate rounded to the nearest minor unit.
+ *      Quantizing the daily rate costs less than half a minor unit for balances below about 43 million major units.
+ * 2. Balances beyond MAX_BALANCE could overflow the product: dailyInterest() rejects them with an
+ *    ArithmeticException, bulk callers check inRange() for the whole batch before computing anything.
+ */
+final class InterestFormula {
+    static final int FRACTION_BITS = 32;
+    static final long HALF = 1L << (FRACTION_BITS - 1);
+    static final int MAX_RATE_BASIS_POINTS = 10_000; // 100% per year
+    static final long MAX_BALANCE = (Long.MAX_VALUE - HALF) / dailyFactor(MAX_RATE_BASIS_POINTS);
+
+    private InterestFormula() {
+    }
+
+    // Annual rate in basis points (350 = 3.50%) -> daily factor, rounded to the nearest 2^-32
+    static long dailyFactor(int rateBasisPoints) {
+        if (rateBasisPoints < 0 || rateBasisPoints > MAX_RATE_BASIS_POINTS) {
+            throw new IllegalArgumentException("Rate out of range: " + rateBasisPoints);
+        }
+        long denominator = 10_000L * 365;
+        return (((long) rateBasisPoints << FRACTION_BITS) + denominator / 2) / denominator;
+    }
+
+    // One day of interest on one balance
+    static long dailyInterest(long balance, long dailyFactor) {
+        if (!inRange(balance)) {
+            throw new ArithmeticException("Balance too large for interest accrual: " + balance);
+        }
+        return interest(balance, dailyFactor);
+    }
+
+    static boolean inRange(long balance) {
+        return balance <= MAX_BALANCE && balance >= -MAX_BALANCE;
+    }
+
+    // The formula itself; the balance must be inRange
+    static long interest(long balance, long dailyFactor) {
+        return (balance * dailyFactor + HALF) >> FRACTION_BITS;
+    }
+}
@@ -0,0 +1,68 @@
+package OOPS.Interfaces;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-Point Money:
+ *
+ * Purpose:
+ * Amounts are plain longs counting minor units (cents) with a fixed scale of 2, so 1234.56 is stored as 123456.
+ * Money only holds static helpers for them: nothing is ever allocated for arithmetic, unlike double (which cannot
+ * represent 0.10 exactly and silently rounds) or BigDecimal (which creates a new object for every result).
+ *
+ * Notes:
+ * 1. Arithmetic is overflow-checked with Math.addExact / subtractExact / multiplyExact, so an overflow throws an
+ *    ArithmeticException instead of wrapping around to a wrong balance.
+ * 2. Comparing two amounts is an ordinary long comparison.
+ * 3. parse() and format() convert from and to text like "1234.56"; they are meant for input and output,
+ *    not for the hot path. toBigDecimal() hands amounts to code that still needs BigDecimal.
+ */
+final class Money {
+    static final int SCALE = 2;              // Digits after the decimal point
+    static final long MINOR_PER_MAJOR = 100; // 10^SCALE
+
+    private Money() {
+    }
+
+    // Whole units, e.g. ofMajor(5000) is 5000.00
+    static long ofMajor(long major) {
+        return Math.multiplyExact(major, MINOR_PER_MAJOR);
+    }
+
+    // "1234.56" -> 123456; more than SCALE decimals are rejected instead of rounded
+    static long parse(String text) {
+        try {
+            return new BigDecimal(text).setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Not a valid amount: " + text, e);
+        }
+    }
+
+    static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    static long multiply(long amount, long factor) {
+        return Math.multiplyExact(amount, factor);
+    }
+
+    static int compare(long a, long b) {
+        return Long.compare(a, b);
+    }
+
+    // 123456 -> "1234.56", -5 -> "-0.05"
+    static String format(long amount) {
+        long major = amount / MINOR_PER_MAJOR;
+        long minor = Math.abs(amount % MINOR_PER_MAJOR);
+        return (amount < 0 ? "-" : "") + Math.abs(major) + (minor < 10 ? ".0" : ".") + minor;
+    }
+
+    static BigDecimal toBigDecimal(long amount) {
+        return BigDecimal.valueOf(amount, SCALE);
+    }
+}
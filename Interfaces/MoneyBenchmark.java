@@ -0,0 +1,164 @@
+package OOPS.Interfaces;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+
+/**
+ * Posting Benchmark: double vs BigDecimal vs fixed-point long (Money)
+ *
+ * Purpose:
+ * Applies the same stream of postings (deposits, and withdrawals that are refused on insufficient funds, like
+ * SavingsAccount) to a set of balances kept as double, as BigDecimal and as long minor units, and prints
+ * the throughput, the bytes allocated per posting and the final total of each representation.
+ *
+ * Usage:
+ *   java OOPS.Interfaces.MoneyBenchmark [postings] [accounts]     (defaults: 100,000,000 postings, 1024 accounts;
+ *   the account count must be a power of two)
+ *
+ * Notes:
+ * - The account classes print every operation, so the loops apply the same arithmetic to plain arrays instead.
+ * - Amounts are drawn once as cents and converted to every representation up front, so only the posting itself
+ *   is measured. A short warmup run lets the JIT compile each loop first.
+ * - The double total can differ from the exact one in the last cents (more so with larger balances): that is the
+ *   rounding error double accumulates; long and BigDecimal always agree exactly.
+ */
+public class MoneyBenchmark {
+    private static final int DISTINCT_AMOUNTS = 1 << 16;
+
+    public static void main(String[] args) {
+        long postings = args.length > 0 ? Long.parseLong(args[0]) : 100_000_000L;
+        int accounts = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+        if (Integer.bitCount(accounts) != 1) {
+            throw new IllegalArgumentException("Account count must be a power of two: " + accounts);
+        }
+
+        // Amounts between 0.01 and 500.00; negative ones are withdrawals
+        SplittableRandom random = new SplittableRandom(42);
+        long[] cents = new long[DISTINCT_AMOUNTS];
+        double[] doubles = new double[DISTINCT_AMOUNTS];
+        BigDecimal[] decimals = new BigDecimal[DISTINCT_AMOUNTS];
+        for (int i = 0; i < DISTINCT_AMOUNTS; i++) {
+            cents[i] = (1 + random.nextLong(50_000)) * (random.nextInt(3) == 0 ? -1 : 1);
+            doubles[i] = cents[i] / 100.0;
+            decimals[i] = Money.toBigDecimal(cents[i]);
+        }
+
+        postLong(new long[accounts], cents, postings / 10); // Warmup
+        postDouble(new double[accounts], doubles, postings / 10);
+        postBigDecimal(newBigDecimals(accounts), decimals, postings / 10);
+
+        System.out.printf("%,d postings over %,d accounts%n", postings, accounts);
+        System.out.printf("%-12s %16s %14s %22s%n", "type", "postings/sec", "bytes/posting", "total");
+
+        // The clock and the allocation counter stop right after the posting loop; the totals are not measured
+        long[] longBalances = new long[accounts];
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        postLong(longBalances, cents, postings);
+        long nanos = System.nanoTime() - start;
+        allocated = allocatedBytes() - allocated;
+        print("long", postings, nanos, allocated, Money.format(sum(longBalances)));
+
+        double[] doubleBalances = new double[accounts];
+        allocated = allocatedBytes();
+        start = System.nanoTime();
+        postDouble(doubleBalances, doubles, postings);
+        nanos = System.nanoTime() - start;
+        allocated = allocatedBytes() - allocated;
+        print("double", postings, nanos, allocated, String.format("%.2f", sum(doubleBalances)));
+
+        BigDecimal[] decimalBalances = newBigDecimals(accounts);
+        allocated = allocatedBytes();
+        start = System.nanoTime();
+        postBigDecimal(decimalBalances, decimals, postings);
+        nanos = System.nanoTime() - start;
+        allocated = allocatedBytes() - allocated;
+        print("BigDecimal", postings, nanos, allocated, sum(decimalBalances).toPlainString());
+    }
+
+    private static void postLong(long[] balances, long[] amounts, long postings) {
+        int mask = balances.length - 1;
+        for (long i = 0; i < postings; i++) {
+            int account = (int) (i * 0x9E3779B9L >>> 7) & mask;
+            long amount = amounts[(int) i & (DISTINCT_AMOUNTS - 1)];
+            if (amount >= 0) {
+                balances[account] = Money.add(balances[account], amount);
+            } else if (Money.compare(balances[account], -amount) >= 0) {
+                balances[account] = Money.add(balances[account], amount);
+            }
+        }
+    }
+
+    private static void postDouble(double[] balances, double[] amounts, long postings) {
+        int mask = balances.length - 1;
+        for (long i = 0; i < postings; i++) {
+            int account = (int) (i * 0x9E3779B9L >>> 7) & mask;
+            double amount = amounts[(int) i & (DISTINCT_AMOUNTS - 1)];
+            if (amount >= 0) {
+                balances[account] += amount;
+            } else if (balances[account] >= -amount) {
+                balances[account] += amount;
+            }
+        }
+    }
+
+    private static void postBigDecimal(BigDecimal[] balances, BigDecimal[] amounts, long postings) {
+        int mask = balances.length - 1;
+        for (long i = 0; i < postings; i++) {
+            int account = (int) (i * 0x9E3779B9L >>> 7) & mask;
+            BigDecimal amount = amounts[(int) i & (DISTINCT_AMOUNTS - 1)];
+            if (amount.signum() >= 0) {
+                balances[account] = balances[account].add(amount);
+            } else if (balances[account].compareTo(amount.negate()) >= 0) {
+                balances[account] = balances[account].add(amount);
+            }
+        }
+    }
+
+    private static BigDecimal[] newBigDecimals(int count) {
+        BigDecimal[] balances = new BigDecimal[count];
+        for (int i = 0; i < count; i++) {
+            balances[i] = Money.toBigDecimal(0);
+        }
+        return balances;
+    }
+
+    private static long sum(long[] balances) {
+        long total = 0;
+        for (long balance : balances) {
+            total = Money.add(total, balance);
+        }
+        return total;
+    }
+
+    private static double sum(double[] balances) {
+        double total = 0;
+        for (double balance : balances) {
+            total += balance;
+        }
+        return total;
+    }
+
+    private static BigDecimal sum(BigDecimal[] balances) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal balance : balances) {
+            total = total.add(balance);
+        }
+        return total;
+    }
+
+    // Bytes allocated by the current thread so far (HotSpot extension of ThreadMXBean), or 0 if unsupported
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            return threads.getThreadAllocatedBytes(Thread.currentThread().threadId());
+        }
+        return 0;
+    }
+
+    private static void print(String type, long postings, long nanos, long allocated, String total) {
+        System.out.printf("%-12s %,16.0f %14.2f %22s%n", type, postings * 1e9 / nanos, (double) allocated / postings,
+                total);
+    }
+}
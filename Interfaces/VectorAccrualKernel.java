@@ -0,0 +1,33 @@
+package OOPS.Interfaces;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+ * SIMD kernel of InterestAccrual: the only class that refers to jdk.incubator.vector, so only this file needs
+ * --add-modules jdk.incubator.vector to compile and run. InterestAccrual loads it reflectively, and never when
+ * the module is missing. Computes exactly InterestFormula.interest for whole vectors of accounts; the caller has
+ * already checked that every balance is in range.
+ */
+final class VectorAccrualKernel implements InterestAccrual.Kernel {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public int lanes() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public int accrue(long[] balances, long[] dailyFactors, int from, int to) {
+        int upper = from + SPECIES.loopBound(to - from);
+        for (int i = from; i < upper; i += SPECIES.length()) {
+            LongVector balance = LongVector.fromArray(SPECIES, balances, i);
+            LongVector factor = LongVector.fromArray(SPECIES, dailyFactors, i);
+            LongVector interest = balance.mul(factor).add(InterestFormula.HALF)
+                    .lanewise(VectorOperators.ASHR, InterestFormula.FRACTION_BITS);
+            balance.add(interest).intoArray(balances, i);
+        }
+        return upper;
+    }
+}
@@ -0,0 +1,276 @@
+package OOPS.Multithreading.Semaphores;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Adaptive Concurrency Limit for an AsyncPermits pool (e.g. the printers of a PrinterPool):
+ *
+ * Purpose:
+ * A fixed number of permits is either too small (requests queue up while the backend could take more)
+ * or too large (the backend gets overloaded and every request slows down). AdaptiveLimiter watches every
+ * closed lease and resizes the pool between minLimit and maxLimit at runtime.
+ *
+ * Notes:
+ * 1. Gradient control on service time:
+ *    - shortService is a moving average of the hold time of recent leases. baselineService is the lowest service
+ *      time seen recently and stands for the service time without overload; it drifts up slowly (BASELINE_DRIFT
+ *      per sample) so that a backend that became slower for good is eventually accepted as the new normal.
+ *    - gradient = TOLERANCE * baselineService / shortService, clamped to [0.5, 1]. While the backend keeps up,
+ *      the service time stays flat, the gradient is 1 and the limit grows by sqrt(limit) (the queue allowance).
+ *      When the backend starts to slow down, shortService rises above the baseline and the limit shrinks
+ *      in proportion, before latency blows up.
+ *    - The result is smoothed (SMOOTHING) so a single slow request does not halve the limit.
+ *
+ * 2. Queue wait time:
+ *    - The limit only grows while it is actually used: some request waited in the queue, or at least half of
+ *      the permits are leased. Otherwise an idle system would push the limit to maxLimit for no reason.
+ *
+ * 3. AIMD back-off on timeouts:
+ *    - A request that times out in the queue multiplies the limit by BACKOFF_RATIO (multiplicative decrease);
+ *      the gradient adds the capacity back step by step (additive increase) once the backend is healthy.
+ *
+ * 4. Resizing outside the monitor:
+ *    - The new limit is computed under the limiter's monitor, but the pool is resized only after the monitor has been
+ *      released: a resize may complete queued futures, and their callbacks must never run under the limiter's lock.
+ *    - The pool reads the limit (target) under its own lock while resizing, so when two threads resize concurrently
+ *      the later one can never restore an older limit.
+ *    - Requests heavier than a shrunken pool fail (see AsyncPermits), so minLimit should be at least the largest weight.
+ *
+ * 5. Metrics: the current limit, bounds, leased permits, queue length and the averages are published over JMX.
+ */
+class AdaptiveLimiter implements AdaptiveLimiterMBean, AsyncPermits.Listener {
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double SHORT_WEIGHT = 0.05; // Moving average weight of one sample
+    private static final double BASELINE_DRIFT = 0.0005;
+
+    private final AsyncPermits permits;
+    private volatile int minLimit;
+    private volatile int maxLimit;
+    private volatile int target; // Latest limit as a whole number of permits, read by the pool while resizing
+
+    // Guarded by this
+    private double limit;
+    private double shortService;
+    private double baselineService;
+    private double averageWait;
+    private long samples;
+    private long timeouts;
+
+    public AdaptiveLimiter(AsyncPermits permits, int minLimit, int maxLimit) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid bounds: " + minLimit + ".." + maxLimit);
+        }
+        this.permits = permits;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, permits.getCapacity()));
+        this.target = (int) limit;
+        permits.resize(target);
+        permits.setListener(this);
+    }
+
+    @Override
+    public void onRelease(int weight, long waitNanos, long holdNanos) {
+        if (learn(waitNanos, holdNanos)) {
+            resizePermits();
+        }
+    }
+
+    @Override
+    public void onTimeout(int weight) {
+        if (backOff()) {
+            resizePermits();
+        }
+    }
+
+    // Updates the averages and the limit; returns true if the pool has to be resized
+    private synchronized boolean learn(long waitNanos, long holdNanos) {
+        samples++;
+        if (samples == 1) {
+            shortService = holdNanos;
+            baselineService = holdNanos;
+        }
+        shortService += SHORT_WEIGHT * (holdNanos - shortService);
+        averageWait += SHORT_WEIGHT * (waitNanos - averageWait);
+        baselineService = Math.min(holdNanos, baselineService * (1 + BASELINE_DRIFT));
+
+        boolean used = waitNanos > 0 || permits.getQueueLength() > 0 || permits.getLeased() * 2 >= limit;
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineService / shortService));
+        double queueAllowance = used ? Math.sqrt(limit) : 0;
+        if (gradient == 1.0 && queueAllowance == 0) {
+            return false; // Healthy but not fully used: nothing to learn
+        }
+        double newLimit = limit * gradient + queueAllowance;
+        return apply(limit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+    }
+
+    private synchronized boolean backOff() {
+        timeouts++;
+        return apply(limit * BACKOFF_RATIO);
+    }
+
+    // Called with the monitor held: clamps and stores the limit, returns true if its whole number of permits changed
+    private boolean apply(double newLimit) {
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        int previous = target;
+        target = (int) limit;
+        return target != previous;
+    }
+
+    // Called without the monitor held, so futures completed by the resize never run under the limiter's lock
+    private void resizePermits() {
+        permits.resize(() -> target);
+    }
+
+    /**
+     * Registers the limiter with the platform MBean server under
+     * OOPS.Multithreading.Semaphores:type=PrinterPool,name=poolName
+     *
+     * @return the name the MBean was registered under
+     */
+    public ObjectName register(String poolName) throws JMException {
+        ObjectName name = new ObjectName("OOPS.Multithreading.Semaphores:type=PrinterPool,name="
+                + ObjectName.quote(poolName));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        return name;
+    }
+
+    @Override
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    @Override
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    @Override
+    public void setMinLimit(int minLimit) {
+        boolean changed;
+        synchronized (this) {
+            if (minLimit <= 0 || minLimit > maxLimit) {
+                throw new IllegalArgumentException("Invalid minimum limit: " + minLimit);
+            }
+            this.minLimit = minLimit;
+            changed = apply(limit);
+        }
+        if (changed) {
+            resizePermits();
+        }
+    }
+
+    @Override
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    @Override
+    public void setMaxLimit(int maxLimit) {
+        boolean changed;
+        synchronized (this) {
+            if (maxLimit < minLimit) {
+                throw new IllegalArgumentException("Invalid maximum limit: " + maxLimit);
+            }
+            this.maxLimit = maxLimit;
+            changed = apply(limit);
+        }
+        if (changed) {
+            resizePermits();
+        }
+    }
+
+    @Override
+    public int getLeased() {
+        return permits.getLeased();
+    }
+
+    @Override
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public synchronized long getSamples() {
+        return samples;
+    }
+
+    @Override
+    public synchronized long getTimeouts() {
+        return timeouts;
+    }
+
+    @Override
+    public synchronized long getShortServiceNanos() {
+        return (long) shortService;
+    }
+
+    @Override
+    public synchronized long getBaselineServiceNanos() {
+        return (long) baselineService;
+    }
+
+    @Override
+    public synchronized long getAverageWaitNanos() {
+        return (long) averageWait;
+    }
+}
+
+/*
+ * Simulated backend behind an adaptive PrinterPool: it serves up to `capacity` jobs at the base service time and
+ * slows down in proportion beyond that. Halfway through, the backend degrades (its capacity drops), and the limit
+ * printed every 250 ms should follow: grow towards the capacity first, then shrink when the backend slows down.
+ */
+class AdaptiveLimiterExample {
+    public static void main(String[] args) throws InterruptedException {
+        int jobs = args.length > 0 ? Integer.parseInt(args[0]) : 40_000;
+        PrinterPool printerPool = new PrinterPool(1, 64);
+        AdaptiveLimiter limiter = printerPool.getLimiter();
+        ScheduledExecutorService backend = Executors.newScheduledThreadPool(2);
+        AtomicInteger backendCapacity = new AtomicInteger(16);
+        AtomicInteger inFlight = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(jobs);
+
+        ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor();
+        long start = System.nanoTime();
+        monitor.scheduleAtFixedRate(() -> System.out.printf(
+                "%5d ms  backend capacity %2d  limit %2d  queue %5d  service %5.2f ms  wait %7.2f ms%n",
+                (System.nanoTime() - start) / 1_000_000, backendCapacity.get(), limiter.getLimit(),
+                limiter.getQueueLength(), limiter.getShortServiceNanos() / 1e6, limiter.getAverageWaitNanos() / 1e6),
+                0, 250, TimeUnit.MILLISECONDS);
+
+        for (int i = 0; i < jobs; i++) {
+            if (i == jobs / 2) {
+                backendCapacity.set(4); // The backend degrades
+            }
+            printerPool.acquireAsync(1, Duration.ofSeconds(30)).thenAccept(lease -> {
+                int concurrent = inFlight.incrementAndGet();
+                long micros = 2_000L * Math.max(1, concurrent * 1_000L / backendCapacity.get()) / 1_000;
+                backend.schedule(() -> {
+                    inFlight.decrementAndGet();
+                    lease.close();
+                    done.countDown();
+                }, micros, TimeUnit.MICROSECONDS);
+            });
+            if (i % 100 == 99) {
+                Thread.sleep(5); // Jobs arrive in bursts of 100
+            }
+        }
+
+        done.await();
+        monitor.shutdown();
+        backend.shutdown();
+        System.out.printf("Finished %,d jobs in %d ms, final limit %d, timeouts %d%n",
+                jobs, (System.nanoTime() - start) / 1_000_000, limiter.getLimit(), limiter.getTimeouts());
+    }
+}
@@ -0,0 +1,32 @@
+package OOPS.Multithreading.Semaphores;
+
+/**
+ * JMX management interface of AdaptiveLimiter.
+ *
+ * Every getter shows up as a read-only attribute in JConsole / VisualVM; setters make the bounds writable at runtime.
+ */
+public interface AdaptiveLimiterMBean {
+    int getLimit();
+
+    int getMinLimit();
+
+    void setMinLimit(int minLimit);
+
+    int getMaxLimit();
+
+    void setMaxLimit(int maxLimit);
+
+    int getLeased();
+
+    int getQueueLength();
+
+    long getSamples();
+
+    long getTimeouts();
+
+    long getShortServiceNanos();
+
+    long getBaselineServiceNanos();
+
+    long getAverageWaitNanos();
+}
@@ -0,0 +1,399 @@
+package OOPS.Multithreading.Semaphores;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/*
+ * Asynchronous, Weighted Semaphore:
+ *
+ * Semaphore.acquire() parks the calling thread until a permit is free. With thousands of pending print jobs that means
+ * thousands of parked threads. AsyncPermits hands out permits through CompletableFutures instead:
+ *
+ * - acquireAsync(weight, timeout) returns immediately. If enough permits are free (and nobody is queued ahead),
+ *   the future is already completed; otherwise a small Waiter record is queued and no thread waits at all.
+ * - release() hands freed permits to the queued waiters in FIFO order and completes their futures.
+ *   The queue is strictly FIFO: a large request at the head is not overtaken by smaller ones behind it,
+ *   so heavy documents cannot starve.
+ * - If the timeout expires first, the waiter is removed from the queue and its future fails with a TimeoutException.
+ *   Cancelling the future removes the waiter as well.
+ * - A Lease is the granted set of permits. It is AutoCloseable, so it can be released with try-with-resources;
+ *   releasing it twice has no effect.
+ *
+ * - A request heavier than the whole pool can never be granted and is rejected with an IllegalArgumentException.
+ * - resize(n) changes the number of permits at runtime (used by AdaptiveLimiter). When shrinking below the permits
+ *   currently leased, nobody is evicted: new requests just wait until enough leases have been closed.
+ *   Queued requests heavier than the new pool size fail with an IllegalArgumentException instead of blocking the queue.
+ * - An optional Listener is told the queue wait and hold time of every closed lease, and about every timeout.
+ *
+ * One lock protects the permit count and the queue. Futures are always completed after the lock is released,
+ * so callbacks attached by callers never run while the lock is held.
+ *
+ * Completing a future runs its callbacks on the completing thread, and a callback that closes its lease right away
+ * grants (and completes) the next waiter from inside complete(). Instead of recursing once per queued waiter,
+ * which would overflow the stack with thousands of queued jobs, a nested complete() on the same thread only hands
+ * its waiters to the outer one, which completes them in a loop (a trampoline).
+ */
+class AsyncPermits {
+    // One daemon timer thread for all timeouts, shared by every instance
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private final Lock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    private int capacity;  // Total number of permits
+    private int available; // Permits not currently leased (negative after shrinking below the leased permits)
+    private volatile Listener listener;
+    private final ThreadLocal<ArrayDeque<Waiter>> completing = new ThreadLocal<>(); // Set while complete() runs
+
+    // Receives timing samples; called without the lock held
+    interface Listener {
+        void onRelease(int weight, long waitNanos, long holdNanos);
+
+        void onTimeout(int weight);
+    }
+
+    public AsyncPermits(int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("Permits must be positive: " + permits);
+        }
+        this.capacity = permits;
+        this.available = permits;
+    }
+
+    /**
+     * Requests weight permits. The future completes with a Lease once they are granted,
+     * or fails with a TimeoutException if that does not happen within the timeout.
+     */
+    public CompletableFuture<Lease> acquireAsync(int weight, Duration timeout) {
+        return acquireAsync(weight, timeout.toNanos());
+    }
+
+    // Blocking version for callers that run on their own thread anyway
+    public Lease acquire(int weight) throws InterruptedException {
+        CompletableFuture<Lease> future = acquireAsync(weight, Long.MAX_VALUE);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            if (!future.cancel(false)) { // Leaves the queue, unless the permits were granted meanwhile
+                future.join().close();
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public int availablePermits() {
+        lock.lock();
+        try {
+            return available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        lock.lock();
+        try {
+            return capacity;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Permits currently held by leases
+    public int getLeased() {
+        lock.lock();
+        try {
+            return capacity - available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Changes the total number of permits; waiters are granted right away if the pool grew
+    public void resize(int permits) {
+        resize(() -> permits);
+    }
+
+    /*
+     * Same as resize(int), but reads the new size under the lock. Callers that compute sizes concurrently
+     * (AdaptiveLimiter) pass a supplier of their latest value, so an older size can never overwrite a newer one.
+     */
+    void resize(IntSupplier permitsSupplier) {
+        List<Waiter> granted;
+        List<Waiter> tooHeavy = new ArrayList<>();
+        int permits;
+        lock.lock();
+        try {
+            permits = permitsSupplier.getAsInt();
+            if (permits <= 0) {
+                throw new IllegalArgumentException("Permits must be positive: " + permits);
+            }
+            available += permits - capacity;
+            capacity = permits;
+            for (Iterator<Waiter> it = waiters.iterator(); it.hasNext(); ) {
+                Waiter waiter = it.next();
+                if (waiter.weight > capacity) {
+                    it.remove(); // Could never be granted and would block everyone behind it
+                    tooHeavy.add(waiter);
+                }
+            }
+            granted = grantWaiters();
+        } finally {
+            lock.unlock();
+        }
+        complete(granted);
+        for (Waiter waiter : tooHeavy) {
+            if (waiter.timeout != null) {
+                waiter.timeout.cancel(false);
+            }
+            waiter.future.completeExceptionally(new IllegalArgumentException(
+                    "Weight " + waiter.weight + " exceeds the resized pool of " + permits + " permit(s)"));
+        }
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public int getQueueLength() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CompletableFuture<Lease> acquireAsync(int weight, long timeoutNanos) {
+        Waiter waiter;
+        lock.lock();
+        try {
+            if (weight <= 0 || weight > capacity) {
+                throw new IllegalArgumentException("Weight must be between 1 and " + capacity + ": " + weight);
+            }
+            if (waiters.isEmpty() && fits(weight)) {
+                available -= weight;
+                return CompletableFuture.completedFuture(new Lease(weight, 0));
+            }
+            waiter = new Waiter(weight, System.nanoTime());
+            waiters.addLast(waiter);
+        } finally {
+            lock.unlock();
+        }
+
+        if (timeoutNanos < Long.MAX_VALUE) {
+            waiter.timeout = TIMER.schedule(() -> expire(waiter), timeoutNanos, TimeUnit.NANOSECONDS);
+        }
+        // Runs on grant, timeout and cancellation; only a cancellation still has to leave the queue
+        waiter.future.whenComplete((lease, failure) -> {
+            if (failure instanceof CancellationException) {
+                remove(waiter);
+            }
+        });
+        return waiter.future;
+    }
+
+    private void expire(Waiter waiter) {
+        if (remove(waiter)) {
+            waiter.future.completeExceptionally(new TimeoutException(
+                    "No " + waiter.weight + " permit(s) available within the timeout"));
+            Listener current = listener;
+            if (current != null) {
+                current.onTimeout(waiter.weight);
+            }
+        }
+    }
+
+    // Removes a still queued waiter; waiters behind it may be grantable now
+    private boolean remove(Waiter waiter) {
+        List<Waiter> granted;
+        lock.lock();
+        try {
+            if (!waiters.remove(waiter)) {
+                return false;
+            }
+            granted = grantWaiters();
+        } finally {
+            lock.unlock();
+        }
+        complete(granted);
+        return true;
+    }
+
+    private void release(int weight) {
+        List<Waiter> granted;
+        lock.lock();
+        try {
+            available += weight;
+            granted = grantWaiters();
+        } finally {
+            lock.unlock();
+        }
+        complete(granted);
+    }
+
+    // Called with the lock held: takes waiters off the head of the queue while their weight fits
+    private List<Waiter> grantWaiters() {
+        List<Waiter> granted = new ArrayList<>();
+        for (Iterator<Waiter> it = waiters.iterator(); it.hasNext(); ) {
+            Waiter waiter = it.next();
+            if (!fits(waiter.weight)) {
+                break; // Strict FIFO: nobody overtakes the head
+            }
+            it.remove();
+            available -= waiter.weight;
+            granted.add(waiter);
+        }
+        return granted;
+    }
+
+    // Called with the lock held
+    private boolean fits(int weight) {
+        return weight <= available;
+    }
+
+    // Called without the lock held
+    private void complete(List<Waiter> granted) {
+        if (granted.isEmpty()) {
+            return;
+        }
+        ArrayDeque<Waiter> pending = completing.get();
+        if (pending != null) {
+            pending.addAll(granted); // Called from a callback: the outer complete() on this thread finishes them
+            return;
+        }
+        pending = new ArrayDeque<>(granted);
+        completing.set(pending);
+        try {
+            Waiter waiter;
+            while ((waiter = pending.poll()) != null) {
+                if (waiter.timeout != null) {
+                    waiter.timeout.cancel(false);
+                }
+                if (!waiter.future.complete(new Lease(waiter.weight, System.nanoTime() - waiter.requestedAt))) {
+                    release(waiter.weight); // Cancelled or timed out concurrently, nobody will close this lease
+                }
+            }
+        } finally {
+            completing.remove();
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "AsyncPermits-Timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true); // Granted waiters do not leave dead timeout tasks behind
+        return timer;
+    }
+
+    // A queued request; accessed under the lock except for the future
+    private static final class Waiter {
+        final int weight;
+        final long requestedAt;
+        final CompletableFuture<Lease> future = new CompletableFuture<>();
+        volatile ScheduledFuture<?> timeout;
+
+        Waiter(int weight, long requestedAt) {
+            this.weight = weight;
+            this.requestedAt = requestedAt;
+        }
+    }
+
+    // Granted permits; close() gives them back exactly once
+    public final class Lease implements AutoCloseable {
+        private final int weight;
+        private final long waitNanos; // Time spent in the queue
+        private final long grantedAt = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(int weight, long waitNanos) {
+            this.weight = weight;
+            this.waitNanos = waitNanos;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public long getWaitNanos() {
+            return waitNanos;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                long holdNanos = System.nanoTime() - grantedAt;
+                release(weight);
+                Listener current = listener;
+                if (current != null) {
+                    current.onRelease(weight, waitNanos, holdNanos);
+                }
+            }
+        }
+    }
+}
+
+/*
+ * Thousands of print jobs queued on a PrinterPool without a thread per job: every job asks for a lease
+ * asynchronously (large documents reserve both printers), "prints" on a shared scheduler and closes the lease.
+ * Jobs whose timeout expires before a printer frees up are counted as timed out.
+ */
+class AsyncPrintExample {
+    public static void main(String[] args) throws InterruptedException {
+        int jobs = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        PrinterPool printerPool = new PrinterPool();
+        ScheduledExecutorService printers = Executors.newScheduledThreadPool(2);
+        CountDownLatch done = new CountDownLatch(jobs);
+        AtomicInteger printed = new AtomicInteger();
+        AtomicInteger timedOut = new AtomicInteger();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < jobs; i++) {
+            int weight = i % 10 == 0 ? 2 : 1; // Every tenth document is large
+            Duration timeout = Duration.ofMillis(i % 2 == 0 ? 10_000 : 50); // Half of the jobs are impatient
+            printerPool.acquireAsync(weight, timeout).whenComplete((lease, failure) -> {
+                if (failure != null) {
+                    timedOut.incrementAndGet();
+                    done.countDown();
+                    return;
+                }
+                printers.schedule(() -> {
+                    try {
+                        printed.incrementAndGet();
+                    } finally {
+                        lease.close();
+                    }
+                    done.countDown();
+                }, 1, TimeUnit.MILLISECONDS); // Simulated printing time
+            });
+        }
+        System.out.printf("%,d jobs submitted from one thread in %d ms%n", jobs, (System.nanoTime() - start) / 1_000_000);
+
+        done.await();
+        printers.shutdown();
+        System.out.printf("Printed: %,d, timed out: %,d, live threads: %d, total: %d ms%n",
+                printed.get(), timedOut.get(), Thread.activeCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,104 @@
+package OOPS.Multithreading.Semaphores;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Benchmark: Amortized Cost per Item of Buffer.produceBatch / consumeBatch
+ *
+ * Purpose:
+ * One producer and one consumer move the same number of items through a Buffer using batch sizes 1, 16 and 256,
+ * plus the single-item produce/consume for reference, and report the cost per item.
+ *
+ * Usage:
+ *   java OOPS.Multithreading.Semaphores.BufferBatchBenchmark [items] [bufferSize]
+ *
+ * Notes:
+ * - A batch pays for the semaphore and mutex operations once, so their cost is divided by the batch size.
+ * - The LinkedList node and Integer box per item remain, so the cost per item does not drop to zero.
+ * - Buffer prints a line per item / per batch; stdout is silenced while measuring.
+ */
+public class BufferBatchBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int bufferSize = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long single = runSingle(items, bufferSize); // Also serves as JIT warmup
+        single = runSingle(items, bufferSize);
+        long[] batchSizes = {1, 16, 256};
+        long[] batched = new long[batchSizes.length];
+        for (int i = 0; i < batchSizes.length; i++) {
+            runBatched(items, bufferSize, (int) batchSizes[i]);
+            batched[i] = runBatched(items, bufferSize, (int) batchSizes[i]);
+        }
+        System.setOut(console);
+
+        System.out.printf("Items: %,d, buffer size: %d%n", items, bufferSize);
+        System.out.printf("produce/consume:        %6.1f ns/item%n", (double) single / items);
+        for (int i = 0; i < batchSizes.length; i++) {
+            System.out.printf("batch size %-4d         %6.1f ns/item%n", batchSizes[i], (double) batched[i] / items);
+        }
+    }
+
+    private static long runSingle(int items, int bufferSize) throws InterruptedException {
+        Buffer buffer = new Buffer(bufferSize);
+        return run(() -> {
+            for (int i = 0; i < items; i++) {
+                buffer.produce(i);
+            }
+        }, () -> {
+            for (int i = 0; i < items; i++) {
+                buffer.consume();
+            }
+        });
+    }
+
+    private static long runBatched(int items, int bufferSize, int batchSize) throws InterruptedException {
+        Buffer buffer = new Buffer(bufferSize);
+        return run(() -> {
+            int[] chunk = new int[batchSize];
+            for (int produced = 0; produced < items; produced += batchSize) {
+                int length = Math.min(batchSize, items - produced);
+                for (int i = 0; i < length; i++) {
+                    chunk[i] = produced + i;
+                }
+                buffer.produceBatch(chunk, 0, length);
+            }
+        }, () -> {
+            int[] chunk = new int[batchSize];
+            for (int consumed = 0; consumed < items; ) {
+                consumed += buffer.consumeBatch(chunk, Math.min(batchSize, items - consumed));
+            }
+        });
+    }
+
+    interface Work {
+        void run() throws InterruptedException;
+    }
+
+    // Runs producer and consumer on two threads and returns the elapsed nanoseconds
+    private static long run(Work producer, Work consumer) throws InterruptedException {
+        Thread producerThread = new Thread(() -> {
+            try {
+                producer.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread consumerThread = new Thread(() -> {
+            try {
+                consumer.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        long start = System.nanoTime();
+        producerThread.start();
+        consumerThread.start();
+        producerThread.join();
+        consumerThread.join();
+        return System.nanoTime() - start;
+    }
+}
@@ -1,6 +1,7 @@
 package OOPS.Multithreading.Semaphores;
 
-import java.util.concurrent.Semaphore;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -15,7 +16,14 @@ import java.util.concurrent.locks.ReentrantLock;
  *
  * Semaphores are commonly used to limit the number of concurrent accesses to a resource, ensuring controlled and safe usage.
  *
- * This implementation uses Java's built-in Semaphore class for managing access to a pool of printers.
+ * PrinterPool manages its printers with AsyncPermits, a weighted semaphore that can also be acquired without blocking:
+ * - printDocument(...) still waits on the calling thread, like Semaphore.acquire().
+ * - acquireAsync(weight, timeout) returns a CompletableFuture<Lease> right away, so thousands of pending jobs
+ *   do not need thousands of parked threads. Large documents can reserve several printer units (weight),
+ *   and the Lease is released with try-with-resources.
+ * - new PrinterPool() has a fixed number of printers. new PrinterPool(min, max) opts in to an AdaptiveLimiter,
+ *   which resizes the pool between min and max printers at runtime, based on the measured queue wait and
+ *   printing (service) time.
  */
 
 /*
@@ -33,22 +41,43 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 
 class PrinterPool {
-    private static final int MAX_AVAILABLE_PRINTERS = 2; // Total number of printers available
-    private final Semaphore availablePrinters; // Semaphore to manage available printers
+    private static final int MAX_AVAILABLE_PRINTERS = 2; // Default number of printers available
+    private final AsyncPermits availablePrinters; // Weighted permits to manage available printers
+    private final AdaptiveLimiter limiter; // Resizes availablePrinters between its bounds, null for a fixed-size pool
 
     public PrinterPool() {
-        availablePrinters = new Semaphore(MAX_AVAILABLE_PRINTERS, true); // Using fair mode for fairness
+        availablePrinters = new AsyncPermits(MAX_AVAILABLE_PRINTERS); // Fixed size, no limiter
+        limiter = null;
+    }
+
+    // Adaptive pool; a document heavier than minPrinters may fail once the pool has shrunk below its weight
+    public PrinterPool(int minPrinters, int maxPrinters) {
+        availablePrinters = new AsyncPermits(MAX_AVAILABLE_PRINTERS); // Waiters are served in FIFO order for fairness
+        limiter = new AdaptiveLimiter(availablePrinters, minPrinters, maxPrinters);
     }
 
     public void printDocument(String document, int userId) throws InterruptedException {
-        availablePrinters.acquire(); // Acquire a printer
-        System.out.println("User " + userId + " is printing document: " + document);
+        AsyncPermits.Lease printer = availablePrinters.acquire(1); // Acquire a printer
+        try {
+            System.out.println("User " + userId + " is printing document: " + document);
 
-        // Simulate printing process
-        Thread.sleep(3000);
+            // Simulate printing process
+            Thread.sleep(3000);
+
+            System.out.println("User " + userId + " finished printing.");
+        } finally {
+            printer.close(); // Release the printer
+        }
+    }
+
+    // Reserves weight printer units without blocking; fails with a TimeoutException if they are not free in time
+    public CompletableFuture<AsyncPermits.Lease> acquireAsync(int weight, Duration timeout) {
+        return availablePrinters.acquireAsync(weight, timeout);
+    }
 
-        System.out.println("User " + userId + " finished printing.");
-        availablePrinters.release(); // Release the printer
+    // The limiter resizing this pool, or null if the pool has a fixed size
+    public AdaptiveLimiter getLimiter() {
+        return limiter;
     }
 }
 
@@ -0,0 +1,223 @@
+package OOPS.Multithreading.Semaphores;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+
+/*
+ * Counting Semaphore on AbstractQueuedSynchronizer (replacement for PrinterSemaphore):
+ *
+ * PrinterSemaphore takes its ReentrantLock on every acquire and every release, and release() signals the condition
+ * even when nobody is waiting. FastSemaphore keeps the number of permits in the AQS state field instead:
+ *
+ * - Fast path: acquire and release are a single compareAndSet on the state. No lock is taken and, when nobody
+ *   is waiting, no thread is touched at all.
+ * - Slow path: a thread that finds too few permits is put into the AQS wait queue and parked.
+ *   release(n) adds n permits and wakes the first queued thread; every woken thread that still leaves permits behind
+ *   wakes the next one (AQS "shared mode propagation"), so exactly as many waiters wake up as the permits can serve.
+ * - Fair mode: a thread never takes permits while others are queued ahead of it (first come, first served).
+ *   Unfair mode: an arriving thread may barge in before queued ones, which gives higher throughput.
+ *
+ * Supports acquire(n), tryAcquire(n), tryAcquire(n, timeout, unit) and release(n), like java.util.concurrent.Semaphore.
+ */
+class FastSemaphore {
+    private final Sync sync;
+
+    public FastSemaphore(int permits) {
+        this(permits, false);
+    }
+
+    public FastSemaphore(int permits, boolean fair) {
+        if (permits < 0) {
+            throw new IllegalArgumentException("Permits must not be negative: " + permits);
+        }
+        sync = new Sync(permits, fair);
+    }
+
+    public void acquire() throws InterruptedException {
+        sync.acquireSharedInterruptibly(1);
+    }
+
+    public void acquire(int permits) throws InterruptedException {
+        checkPositive(permits);
+        sync.acquireSharedInterruptibly(permits);
+    }
+
+    // Takes a permit only if one is free right now (barges even in fair mode, like Semaphore.tryAcquire())
+    public boolean tryAcquire() {
+        return sync.tryTake(1) >= 0;
+    }
+
+    public boolean tryAcquire(int permits) {
+        checkPositive(permits);
+        return sync.tryTake(permits) >= 0;
+    }
+
+    public boolean tryAcquire(int permits, long timeout, TimeUnit unit) throws InterruptedException {
+        checkPositive(permits);
+        return sync.tryAcquireSharedNanos(permits, unit.toNanos(timeout));
+    }
+
+    public void release() {
+        sync.releaseShared(1);
+    }
+
+    public void release(int permits) {
+        checkPositive(permits);
+        sync.releaseShared(permits);
+    }
+
+    public int availablePermits() {
+        return sync.getPermits();
+    }
+
+    public boolean isFair() {
+        return sync.fair;
+    }
+
+    public boolean hasQueuedThreads() {
+        return sync.hasQueuedThreads();
+    }
+
+    private static void checkPositive(int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("Permits must be positive: " + permits);
+        }
+    }
+
+    // The AQS state is the number of free permits
+    @SuppressWarnings("serial") // Never serialized
+    private static final class Sync extends AbstractQueuedSynchronizer {
+        final boolean fair;
+
+        Sync(int permits, boolean fair) {
+            this.fair = fair;
+            setState(permits);
+        }
+
+        int getPermits() {
+            return getState();
+        }
+
+        // Returns the permits left after taking, or a negative number if there were not enough
+        int tryTake(int permits) {
+            while (true) {
+                int available = getState();
+                int remaining = available - permits;
+                if (remaining < 0 || compareAndSetState(available, remaining)) {
+                    return remaining;
+                }
+            }
+        }
+
+        // Negative: fail and queue; zero: acquired, nothing left for others; positive: acquired, wake the next waiter
+        @Override
+        protected int tryAcquireShared(int permits) {
+            if (fair && hasQueuedPredecessors()) {
+                return -1;
+            }
+            return tryTake(permits);
+        }
+
+        @Override
+        protected boolean tryReleaseShared(int permits) {
+            while (true) {
+                int available = getState();
+                int updated = available + permits;
+                if (updated < available) {
+                    throw new Error("Maximum permit count exceeded");
+                }
+                if (compareAndSetState(available, updated)) {
+                    return true; // AQS then unparks the first queued thread, if there is one
+                }
+            }
+        }
+    }
+}
+
+/*
+ * Throughput of acquire/release pairs for PrinterSemaphore, java.util.concurrent.Semaphore and FastSemaphore
+ * (fair and unfair). Uncontended: one thread; contended: twice as many threads as permits, all on one semaphore.
+ */
+class FastSemaphoreBenchmark {
+    interface Acquire {
+        void acquire() throws InterruptedException;
+    }
+
+    // acquire/release pair of the semaphore under test
+    static final class Permits {
+        final Acquire acquire;
+        final Runnable release;
+
+        Permits(Acquire acquire, Runnable release) {
+            this.acquire = acquire;
+            this.release = release;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int permits = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 1_000;
+        int contendedThreads = 2 * permits;
+
+        String[] names = {"PrinterSemaphore", "Semaphore (unfair)", "Semaphore (fair)",
+                "FastSemaphore (unfair)", "FastSemaphore (fair)"};
+        System.out.printf("%-24s %20s %26s%n", "", "1 thread (ops/s)", contendedThreads + " threads (ops/s)");
+        for (String name : names) {
+            run(create(name, permits), 1, millis / 3); // Warmup
+            double uncontended = run(create(name, permits), 1, millis);
+            double contended = run(create(name, permits), contendedThreads, millis);
+            System.out.printf("%-24s %,20.0f %,26.0f%n", name, uncontended, contended);
+        }
+    }
+
+    private static Permits create(String name, int permits) {
+        switch (name) {
+            case "PrinterSemaphore": {
+                PrinterSemaphore semaphore = new PrinterSemaphore(permits);
+                return new Permits(semaphore::acquire, semaphore::release);
+            }
+            case "Semaphore (unfair)":
+            case "Semaphore (fair)": {
+                Semaphore semaphore = new Semaphore(permits, name.contains("(fair)"));
+                return new Permits(semaphore::acquire, semaphore::release);
+            }
+            default: {
+                FastSemaphore semaphore = new FastSemaphore(permits, name.contains("(fair)"));
+                return new Permits(semaphore::acquire, semaphore::release);
+            }
+        }
+    }
+
+    private static double run(Permits permits, int threads, long millis) throws InterruptedException {
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        long[] counts = new long[threads];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            workers[t] = new Thread(() -> {
+                long count = 0;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        for (int i = 0; i < 64; i++) {
+                            permits.acquire.acquire();
+                            permits.release.run();
+                        }
+                        count += 64;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                counts[index] = count;
+            });
+            workers[t].start();
+        }
+
+        long total = 0;
+        for (int t = 0; t < threads; t++) {
+            workers[t].join();
+            total += counts[t];
+        }
+        return total * 1000.0 / millis;
+    }
+}
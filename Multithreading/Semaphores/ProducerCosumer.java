@@ -40,6 +40,83 @@ class Buffer {
         mutex.release(); // Exit critical section
         empty.release(); // Signal that an empty slot is available
     }
+
+    /**
+     * Produces items[off] .. items[off + len - 1] in as few rounds as possible.
+     * Each round waits for at least one empty slot, then grabs every other empty slot that is free at that moment
+     * (drainPermits), adds that many items under a single mutex acquisition, and signals consumers once.
+     * The mutex is only held for a few queue operations, so it is acquired uninterruptibly: an interrupt can then only
+     * arrive while waiting for space, never while this thread holds slots it has not filled yet.
+     *
+     * @return len, or fewer if the thread was interrupted after some rounds: items[off] .. items[off + returned - 1]
+     *         have been produced, the rest have not, and the thread's interrupt status is set again
+     * @throws InterruptedException if interrupted while waiting for space before anything was produced
+     */
+    public int produceBatch(int[] items, int off, int len) throws InterruptedException {
+        if (off < 0 || len < 0 || off + len > items.length) {
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + items.length);
+        }
+        int produced = 0;
+        while (produced < len) {
+            int slots;
+            try {
+                slots = takeUpTo(empty, len - produced); // Wait for space, then take as much as is free
+            } catch (InterruptedException e) {
+                if (produced == 0) {
+                    throw e;
+                }
+                Thread.currentThread().interrupt(); // Report the partial batch, keep the interrupt for the caller
+                return produced;
+            }
+
+            mutex.acquireUninterruptibly(); // Enter critical section once for the whole chunk
+            for (int i = 0; i < slots; i++) {
+                queue.add(items[off + produced + i]);
+            }
+            mutex.release(); // Exit critical section
+
+            full.release(slots); // Signal all new items at once
+            System.out.println("Produced batch of " + slots + " items");
+            produced += slots;
+        }
+        return produced;
+    }
+
+    /**
+     * Consumes between 1 and max items into dest (starting at index 0) and returns how many were taken.
+     * Waits only until at least one item is available; takes everything available at that moment, up to max.
+     * As in produceBatch, the mutex is acquired uninterruptibly, so taken items are never lost to an interrupt.
+     *
+     * @throws InterruptedException if interrupted while waiting for an item (nothing has been consumed then)
+     */
+    public int consumeBatch(int[] dest, int max) throws InterruptedException {
+        if (max <= 0 || max > dest.length) {
+            throw new IllegalArgumentException("max must be between 1 and dest.length: " + max);
+        }
+        int count = takeUpTo(full, max); // Wait for an item, then take as many as are ready
+
+        mutex.acquireUninterruptibly(); // Enter critical section once for the whole chunk
+        for (int i = 0; i < count; i++) {
+            dest[i] = queue.poll();
+        }
+        mutex.release(); // Exit critical section
+
+        empty.release(count); // Signal all freed slots at once
+        System.out.println("Consumed batch of " + count + " items");
+        return count;
+    }
+
+    // Blocks for one permit, then grabs every other available permit and gives back what exceeds the limit;
+    // an interrupt can only end the first wait, when nothing has been taken yet
+    private static int takeUpTo(Semaphore semaphore, int limit) throws InterruptedException {
+        semaphore.acquire();
+        int taken = 1 + semaphore.drainPermits();
+        if (taken > limit) {
+            semaphore.release(taken - limit);
+            taken = limit;
+        }
+        return taken;
+    }
 }
 
  class ProducerConsumer {
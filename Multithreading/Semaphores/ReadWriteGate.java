@@ -0,0 +1,362 @@
+package OOPS.Multithreading.Semaphores;
+
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Reader-Writer Gates for Book:
+ *
+ * Book's original scheme (kept as READER_PREFERENCE) lets the first reader lock out writers and the last reader let
+ * them in again. As long as at least one reader is inside, new readers keep walking in, so a steady stream of readers
+ * starves writers forever, and every reader passes the mutex semaphore twice.
+ *
+ * A ReadWriteGate hides the policy behind lockRead/unlockRead/lockWrite/unlockWrite; Book picks one at construction:
+ *
+ * - READER_PREFERENCE: the original mutex + rwLock semaphores. Highest read throughput, unbounded writer wait.
+ * - WRITER_PREFERENCE: a lock with two conditions. Once a writer is waiting, new readers wait too, so the writer only
+ *   waits for the readers already inside. Readers can starve if writers keep arriving.
+ * - PHASE_FAIR: the phase-fair ticket lock (Brandenburg and Anderson). Reader and writer phases alternate:
+ *   a writer waits for at most one reader phase (plus the writers queued before it, in ticket order), and a reader
+ *   waits for at most one writer phase. Both waits are bounded. Readers only do one atomic add to enter and one to
+ *   leave, there is no shared mutex.
+ * - STRIPED: StripedReaderGate, readers count themselves on per-stripe padded counters instead of one shared counter.
+ *
+ * Lock methods may throw InterruptedException for callers like Book.read; the phase-fair gate cannot abandon
+ * its place in line, so it finishes acquiring and leaves the interrupt status set instead.
+ */
+interface ReadWriteGate {
+    // Lock-free RCU reads are not a gate policy but a Book mode, see Book.Mode.RCU
+    enum Policy { READER_PREFERENCE, WRITER_PREFERENCE, PHASE_FAIR, STRIPED }
+
+    void lockRead() throws InterruptedException;
+
+    void unlockRead();
+
+    void lockWrite() throws InterruptedException;
+
+    void unlockWrite();
+
+    static ReadWriteGate create(Policy policy) {
+        switch (policy) {
+            case READER_PREFERENCE:
+                return new ReaderPreferenceGate();
+            case WRITER_PREFERENCE:
+                return new WriterPreferenceGate();
+            case PHASE_FAIR:
+                return new PhaseFairGate();
+            case STRIPED:
+                return new StripedReaderGate();
+            default:
+                throw new IllegalArgumentException("Unknown policy: " + policy);
+        }
+    }
+
+    // Adapts a java.util.concurrent ReadWriteLock, e.g. ReentrantReadWriteLock, for comparisons
+    static ReadWriteGate of(ReadWriteLock lock) {
+        return new ReadWriteGate() {
+            @Override
+            public void lockRead() throws InterruptedException {
+                lock.readLock().lockInterruptibly();
+            }
+
+            @Override
+            public void unlockRead() {
+                lock.readLock().unlock();
+            }
+
+            @Override
+            public void lockWrite() throws InterruptedException {
+                lock.writeLock().lockInterruptibly();
+            }
+
+            @Override
+            public void unlockWrite() {
+                lock.writeLock().unlock();
+            }
+        };
+    }
+}
+
+// The classic first-readers-writers scheme Book used before
+final class ReaderPreferenceGate implements ReadWriteGate {
+    private final Semaphore mutex = new Semaphore(1); // Protects readerCount
+    private final Semaphore rwLock = new Semaphore(1); // Held by a writer, or by the readers as a group
+    private int readerCount = 0;
+
+    @Override
+    public void lockRead() throws InterruptedException {
+        mutex.acquire();
+        try {
+            if (++readerCount == 1) {
+                rwLock.acquire(); // First reader locks the shared resource
+            }
+        } catch (InterruptedException e) {
+            readerCount--;
+            throw e;
+        } finally {
+            mutex.release();
+        }
+    }
+
+    @Override
+    public void unlockRead() {
+        mutex.acquireUninterruptibly();
+        if (--readerCount == 0) {
+            rwLock.release(); // Last reader releases the shared resource
+        }
+        mutex.release();
+    }
+
+    @Override
+    public void lockWrite() throws InterruptedException {
+        rwLock.acquire();
+    }
+
+    @Override
+    public void unlockWrite() {
+        rwLock.release();
+    }
+}
+
+// New readers wait while a writer is writing or waiting
+final class WriterPreferenceGate implements ReadWriteGate {
+    private final Lock lock = new ReentrantLock();
+    private final Condition canRead = lock.newCondition();
+    private final Condition canWrite = lock.newCondition();
+    private int readers;
+    private int waitingWriters;
+    private boolean writing;
+
+    @Override
+    public void lockRead() throws InterruptedException {
+        lock.lock();
+        try {
+            while (writing || waitingWriters > 0) {
+                canRead.await();
+            }
+            readers++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void unlockRead() {
+        lock.lock();
+        try {
+            if (--readers == 0 && waitingWriters > 0) {
+                canWrite.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void lockWrite() throws InterruptedException {
+        lock.lock();
+        try {
+            waitingWriters++;
+            try {
+                while (writing || readers > 0) {
+                    canWrite.await();
+                }
+            } finally {
+                waitingWriters--;
+            }
+            writing = true;
+        } catch (InterruptedException e) {
+            if (waitingWriters == 0) {
+                canRead.signalAll(); // Readers held back by this writer may go
+            }
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void unlockWrite() {
+        lock.lock();
+        try {
+            writing = false;
+            if (waitingWriters > 0) {
+                canWrite.signal(); // Writers first
+            } else {
+                canRead.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
+
+/*
+ * Phase-fair ticket lock (PF-T). Counters:
+ * - readersIn / readersOut: entries and exits of readers, in steps of READER (the low byte is free for writer bits)
+ * - The low two bits of readersIn tell arriving readers that a writer is present (PRESENT) and in which writer
+ *   phase (PHASE, alternating 0/1), so a blocked reader can tell "still the same writer" from "a new writer".
+ * - writersIn / writersOut: ticket lock that orders the writers among themselves.
+ */
+final class PhaseFairGate implements ReadWriteGate {
+    private static final int READER = 0x100;
+    private static final int WRITER_BITS = 0x3;
+    private static final int PRESENT = 0x2;
+    private static final int PHASE = 0x1;
+
+    private final AtomicInteger readersIn = new AtomicInteger();
+    private final AtomicInteger readersOut = new AtomicInteger();
+    private final AtomicInteger writersIn = new AtomicInteger();
+    private volatile int writersOut;
+
+    @Override
+    public void lockRead() {
+        int writer = readersIn.getAndAdd(READER) & WRITER_BITS;
+        if (writer != 0) {
+            // Wait only until this writer's phase ends, even if another writer comes right after
+            for (int attempt = 0; (readersIn.get() & WRITER_BITS) == writer; attempt++) {
+                pause(attempt);
+            }
+        }
+    }
+
+    @Override
+    public void unlockRead() {
+        readersOut.getAndAdd(READER);
+    }
+
+    @Override
+    public void lockWrite() {
+        int ticket = writersIn.getAndIncrement();
+        for (int attempt = 0; writersOut != ticket; attempt++) {
+            pause(attempt);
+        }
+        // Block new readers, then wait for the readers that entered before
+        int entered = readersIn.getAndAdd(PRESENT | (ticket & PHASE)) & ~WRITER_BITS;
+        for (int attempt = 0; readersOut.get() != entered; attempt++) {
+            pause(attempt);
+        }
+    }
+
+    @Override
+    public void unlockWrite() {
+        readersIn.getAndUpdate(value -> value & ~WRITER_BITS); // Readers waiting on this phase may go
+        writersOut = writersOut + 1; // Only the lock holder writes it
+    }
+
+    // Spin, then yield, then park for short periods
+    private static void pause(int attempt) {
+        if (attempt < 100) {
+            Thread.onSpinWait();
+        } else if (attempt < 110) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(Math.min(1_000L << Math.min(attempt - 110, 10), 1_000_000L));
+        }
+    }
+}
+
+/*
+ * Mixed workload on every gate policy plus ReentrantReadWriteLock for reference: all threads read, and one operation
+ * in every `writeEvery` is a write instead (1:100 by default). Prints reader throughput and the time writers
+ * waited for the lock (p50, p99, max).
+ */
+class ReadWriteGateBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 2 * Runtime.getRuntime().availableProcessors();
+        int writeEvery = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        long millis = args.length > 2 ? Long.parseLong(args[2]) : 1_000;
+
+        System.out.printf("%d threads, 1 write per %d reads%n", threads, writeEvery);
+        System.out.printf("%-20s %16s %14s %14s %14s%n", "policy", "reads/sec", "write p50 us", "write p99 us",
+                "write max us");
+        for (ReadWriteGate.Policy policy : ReadWriteGate.Policy.values()) { // RCU is measured by BookReadBenchmark
+            run(ReadWriteGate.create(policy), threads, writeEvery, millis / 3); // Warmup
+            print(policy.name(), run(ReadWriteGate.create(policy), threads, writeEvery, millis), millis);
+        }
+        print("ReentrantReadWriteLock", run(ReadWriteGate.of(new ReentrantReadWriteLock()), threads, writeEvery, millis), millis);
+    }
+
+    // Result of one run: number of reads and all write wait times
+    private static final class Result {
+        long reads;
+        long[] writeWaits = new long[0];
+    }
+
+    private static Result run(ReadWriteGate gate, int threads, int writeEvery, long millis) throws InterruptedException {
+        int[] shared = new int[16]; // The "book": readers sum it, writers rewrite it
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        long[] reads = new long[threads];
+        long[][] waits = new long[threads][];
+        int[] waitCounts = new int[threads];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            workers[t] = new Thread(() -> {
+                long[] myWaits = new long[1024];
+                int writes = 0;
+                long count = 0;
+                long sink = 0;
+                try {
+                    for (long op = index; System.nanoTime() < deadline; op++) {
+                        if (op % writeEvery == 0) {
+                            long start = System.nanoTime();
+                            gate.lockWrite();
+                            long waited = System.nanoTime() - start;
+                            for (int i = 0; i < shared.length; i++) {
+                                shared[i] = (int) op;
+                            }
+                            gate.unlockWrite();
+                            if (writes == myWaits.length) {
+                                myWaits = Arrays.copyOf(myWaits, writes * 2);
+                            }
+                            myWaits[writes++] = waited;
+                        } else {
+                            gate.lockRead();
+                            for (int value : shared) {
+                                sink += value;
+                            }
+                            gate.unlockRead();
+                            count++;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                reads[index] = count + (sink == 42 ? 1 : 0); // Keeps the reads from being optimized away
+                waits[index] = myWaits;
+                waitCounts[index] = writes;
+            });
+            workers[t].start();
+        }
+
+        Result result = new Result();
+        for (int t = 0; t < threads; t++) {
+            workers[t].join();
+            result.reads += reads[t];
+            int offset = result.writeWaits.length;
+            result.writeWaits = Arrays.copyOf(result.writeWaits, offset + waitCounts[t]);
+            System.arraycopy(waits[t], 0, result.writeWaits, offset, waitCounts[t]);
+        }
+        Arrays.sort(result.writeWaits);
+        return result;
+    }
+
+    private static void print(String name, Result result, long millis) {
+        long[] waits = result.writeWaits;
+        System.out.printf("%-20s %,16.0f %14.1f %14.1f %14.1f%n", name, result.reads * 1000.0 / millis,
+                percentile(waits, 0.50) / 1e3, percentile(waits, 0.99) / 1e3,
+                (waits.length == 0 ? 0 : waits[waits.length - 1]) / 1e3);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.floor(p * sorted.length))];
+    }
+}
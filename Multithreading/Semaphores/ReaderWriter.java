@@ -1,17 +1,50 @@
 package OOPS.Multithreading.Semaphores;
 
-import java.util.concurrent.Semaphore;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 class Book {
 
-    private final Semaphore mutex; // Semaphore to protect the reader count...
-    private final Semaphore rwLock ; // Semaphore to provide mutual exclusion for writers
-    private int readerCount = 0; // Count of readers currently reading
-    private int sharedData = 0; // Shared resource
+    // LOCKED: readers and writers pass a ReadWriteGate. RCU: readers take no lock, writers publish immutable versions
+    enum Mode { LOCKED, RCU }
+
+    private final Mode mode;
+    private final ReadWriteGate gate; // Lets readers in together and writers in alone; only used in LOCKED mode
+    private final Lock writerLock = new ReentrantLock(); // RCU mode: serializes writers, readers never touch it
+    private volatile Version current = new Version(0, 0); // Shared resource, replaced as a whole on every write
+
+    // One immutable state of the shared resource
+    private static final class Version {
+        final int sharedData;
+        final long number; // Incremented by every write
+
+        Version(int sharedData, long number) {
+            this.sharedData = sharedData;
+            this.number = number;
+        }
+    }
 
     public Book() {
-        this.mutex = new Semaphore(1);
-        this.rwLock = new Semaphore(1);
+        this(ReadWriteGate.Policy.READER_PREFERENCE); // The classic mutex + rwLock semaphores
+    }
+
+    // LOCKED uses the default READER_PREFERENCE gate
+    public Book(Mode mode) {
+        this.mode = Objects.requireNonNull(mode, "mode");
+        this.gate = mode == Mode.LOCKED ? ReadWriteGate.create(ReadWriteGate.Policy.READER_PREFERENCE) : null;
+    }
+
+    public Book(ReadWriteGate.Policy policy) {
+        this(ReadWriteGate.create(policy));
+    }
+
+    // Uses the given gate, e.g. an adapted ReentrantReadWriteLock
+    Book(ReadWriteGate gate) {
+        this.mode = Mode.LOCKED;
+        this.gate = Objects.requireNonNull(gate, "gate");
     }
 
     /**
@@ -21,23 +54,20 @@ class Book {
      * @throws InterruptedException
      */
     public void read(int readerId) throws InterruptedException {
-        mutex.acquire(); // Acquire mutex to modify readerCount
-        readerCount++;
-        if (readerCount == 1) {
-            rwLock.acquire(); // First reader locks the shared resource
+        if (mode == Mode.RCU) {
+            Version version = current; // RCU: one volatile (acquire) load, no lock
+            System.out.println("Reader " + readerId + " reads: " + version.sharedData + " (version " + version.number + ")");
+            Thread.sleep(2000); // Keeps reading its version even if a writer publishes a new one meanwhile
+            return;
         }
-        mutex.release(); // Release mutex after modifying readerCount
-
-        // Reading section
-        System.out.println("Reader " + readerId + " reads: " + sharedData);
-        Thread.sleep(2000);
-
-        mutex.acquire(); // Acquire mutex to modify readerCount
-        readerCount--;
-        if (readerCount == 0) {
-            rwLock.release(); // Last reader releases the shared resource
+        gate.lockRead(); // Enter together with the other readers
+        try {
+            // Reading section
+            System.out.println("Reader " + readerId + " reads: " + current.sharedData);
+            Thread.sleep(2000);
+        } finally {
+            gate.unlockRead();
         }
-        mutex.release(); // Release mutex after modifying readerCount
     }
 
     /**
@@ -48,20 +78,68 @@ class Book {
      * @throws InterruptedException
      */
     public void write(int writerId, int value) throws InterruptedException {
-        rwLock.acquire(); // Writer locks the shared resource
+        lockWrite(); // Writer locks the shared resource
+        try {
+            // Writing section
+            publish(value);
+            Thread.sleep(3000);
+            System.out.println("Writer " + writerId + " writes: " + current.sharedData);
+        } finally {
+            unlockWrite(); // Writer releases the shared resource
+        }
+    }
+
+    // Reading without the demo delay and printing
+    int readValue() throws InterruptedException {
+        if (mode == Mode.RCU) {
+            return current.sharedData;
+        }
+        gate.lockRead();
+        try {
+            return current.sharedData;
+        } finally {
+            gate.unlockRead();
+        }
+    }
+
+    // Writing without the demo delay and printing
+    void writeValue(int value) throws InterruptedException {
+        lockWrite();
+        try {
+            publish(value);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // Builds the next version and publishes it with a single volatile (release) store; the old one is left to the GC
+    private void publish(int value) {
+        current = new Version(value, current.number + 1);
+    }
 
-        // Writing section
-        sharedData = value;
-        Thread.sleep(3000);
-        System.out.println("Writer " + writerId + " writes: " + sharedData);
+    private void lockWrite() throws InterruptedException {
+        if (mode == Mode.RCU) {
+            writerLock.lockInterruptibly();
+        } else {
+            gate.lockWrite();
+        }
+    }
 
-        rwLock.release(); // Writer releases the shared resource
+    private void unlockWrite() {
+        if (mode == Mode.RCU) {
+            writerLock.unlock();
+        } else {
+            gate.unlockWrite();
+        }
     }
 }
 
     class ReaderWriter {
         public static void main(String[] args) {
-            Book book = new Book();
+            // Optional argument: a gate policy (READER_PREFERENCE (default), WRITER_PREFERENCE, PHASE_FAIR, STRIPED) or RCU
+            Book book = args.length == 0 ? new Book()
+                    : args[0].equals(Book.Mode.RCU.name()) ? new Book(Book.Mode.RCU)
+                    : new Book(ReadWriteGate.Policy.valueOf(args[0]));
 
             int MAX_READERS = 6;
 
@@ -97,6 +175,16 @@ class Book {
 /*
  * Explanation of synchronization techniques:
  *
+ * Book delegates to a ReadWriteGate. The default READER_PREFERENCE gate (ReaderPreferenceGate) is the scheme below;
+ * WRITER_PREFERENCE and PHASE_FAIR bound how long writers wait (see ReadWriteGate.java).
+ *
+ * RCU mode (Book.Mode.RCU, read-copy-update, for read-mostly data such as configuration):
+ * - The shared resource is an immutable Version object held in one volatile field.
+ * - Writers (serialized by writerLock) build a new Version and publish it with a single volatile store.
+ * - Readers take no lock at all: one volatile load gives them a consistent version that never changes under them.
+ *   They never write shared memory, so reads scale with the number of cores.
+ * - A reader may still be looking at an older version after a write; it is reclaimed by the GC once nobody uses it.
+ *
  * mutex (Semaphore):
  * - The mutex semaphore ensures that the readerCount is updated in a thread-safe manner.
  * - Only one thread can access or modify the readerCount at a time, ensuring atomicity and preventing race conditions.
@@ -105,13 +193,13 @@ class Book {
  * - The rwLock semaphore ensures mutual exclusion for writers.
  * - Only one writer can access the shared resource at a time, and it prevents readers from accessing it while writing.
  *
- * read() method:
+ * read() method (lockRead/unlockRead of ReaderPreferenceGate):
  * - Readers first acquire the mutex to safely increment the readerCount.
  * - The first reader acquires the rwLock to lock the shared resource preventing any other writer to write.
  * - After reading, readers decrement the readerCount while holding the mutex.
  * - The last reader releases the rwLock, allowing writers to access the shared resource.
  *
- * write() method:
+ * write() method (lockWrite/unlockWrite):
  * - Writers acquire the rwLock before writing to the shared resource.
  * - This ensures that only one writer can write at a time and prevents readers from accessing the resource during writing.
  *
@@ -125,3 +213,78 @@ class Book {
  *
 
  */
+
+/*
+ * Read scaling for the configuration-distribution case: 1, 2, 4, ... and then exactly maxThreads reader threads
+ * (ShardedBufferBenchmark.threadCounts) call Book.readValue() as fast as they can while one writer publishes
+ * a new value every 100 ms. Prints reads/sec per policy.
+ */
+class BookReadBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 1_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : 2 * Runtime.getRuntime().availableProcessors();
+        String[] names = {"READER_PREFERENCE", "PHASE_FAIR", "RCU"};
+        List<Supplier<Book>> books = List.of(() -> new Book(ReadWriteGate.Policy.READER_PREFERENCE),
+                () -> new Book(ReadWriteGate.Policy.PHASE_FAIR), () -> new Book(Book.Mode.RCU));
+
+        System.out.printf("%8s", "readers");
+        for (String name : names) {
+            System.out.printf(" %20s", name);
+        }
+        System.out.println();
+        for (int threads : ShardedBufferBenchmark.threadCounts(maxThreads)) {
+            System.out.printf("%8d", threads);
+            for (Supplier<Book> book : books) {
+                run(book.get(), threads, millis / 3); // Warmup
+                System.out.printf(" %,20.0f", run(book.get(), threads, millis));
+            }
+            System.out.println();
+        }
+    }
+
+    private static double run(Book book, int threads, long millis) throws InterruptedException {
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        Thread writer = new Thread(() -> {
+            try {
+                for (int value = 1; System.nanoTime() < deadline; value++) {
+                    book.writeValue(value);
+                    Thread.sleep(100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        long[] counts = new long[threads];
+        Thread[] readers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            readers[t] = new Thread(() -> {
+                long count = 0;
+                long sink = 0;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        for (int i = 0; i < 64; i++) {
+                            sink += book.readValue();
+                        }
+                        count += 64;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                counts[index] = count + (sink == 42 ? 1 : 0); // Keeps the reads from being optimized away
+            });
+        }
+
+        writer.start();
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        long total = 0;
+        for (int t = 0; t < threads; t++) {
+            readers[t].join();
+            total += counts[t];
+        }
+        writer.join();
+        return total * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,335 @@
+package OOPS.Multithreading.Semaphores;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Lock-Free Bounded Ring Buffers (replacement for Buffer's LinkedList + three semaphores):
+ *
+ * Buffer moves every item with four semaphore operations (empty, mutex, mutex, full), a LinkedList node allocation
+ * and an Integer box. The ring buffers below keep items in a preallocated int[] whose size is a power of two,
+ * so "index % capacity" becomes "index & mask", and coordinate producers and consumers with two counters:
+ *
+ * - tail: sequence number of the next item to be written (advanced by producers)
+ * - head: sequence number of the next item to be read (advanced by consumers)
+ * - The buffer is empty when head == tail and full when tail - head == capacity.
+ *
+ * Memory ordering (VarHandle release/acquire, the modern form of AtomicLong.lazySet):
+ * - A producer writes the item first and then publishes it with a release store of tail.
+ * - A consumer reads tail with an acquire load, so it is guaranteed to see the item written before the release.
+ * - The same pairing in the other direction (release head, acquire head) tells producers a slot is free again.
+ *
+ * False sharing:
+ * - head and tail are written by different threads. If they shared a 64-byte cache line, every write by one side
+ *   would invalidate the line on the other side's core. The classes in between (RingPad*) add 56 bytes of unused
+ *   long fields around each counter; the JVM lays out superclass fields first, so the padding stays in place.
+ *
+ * Two flavors:
+ * - SpscIntRingBuffer: exactly one producer thread and one consumer thread. No CAS at all, every side owns its counter.
+ * - MpmcIntRingBuffer: any number of producers and consumers (Dmitry Vyukov's bounded MPMC queue). Each slot has a
+ *   sequence number telling whether it is ready to be written or read; threads claim slots with one CAS on tail/head.
+ *
+ * API:
+ * - offer(item) / poll(): non-blocking. offer returns false when full, poll returns EMPTY when there is nothing to read.
+ *   poll returns a long so that every int value stays a valid item and no boxing is needed.
+ * - produce(item) / consume(): blocking like Buffer's methods. They spin briefly, then yield, then park with
+ *   growing sleeps, and throw InterruptedException if the thread is interrupted while waiting.
+ */
+abstract class IntRingBuffer {
+    static final long EMPTY = Long.MIN_VALUE; // Returned by poll() when the buffer is empty
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 10;
+    private static final long MAX_PARK_NANOS = 1_000_000;
+
+    final int[] items;
+    final int mask;
+
+    IntRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.items = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    // Adds the item if there is room; never blocks
+    public abstract boolean offer(int item);
+
+    // Removes and returns the next item, or EMPTY if there is none; never blocks
+    public abstract long poll();
+
+    // Blocking add: waits while the buffer is full
+    public void produce(int item) throws InterruptedException {
+        for (int attempt = 0; !offer(item); attempt++) {
+            backOff(attempt);
+        }
+    }
+
+    // Blocking remove: waits while the buffer is empty
+    public int consume() throws InterruptedException {
+        long item;
+        for (int attempt = 0; (item = poll()) == EMPTY; attempt++) {
+            backOff(attempt);
+        }
+        return (int) item;
+    }
+
+    // Spin, then yield, then park for exponentially growing (capped) periods
+    static void backOff(int attempt) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (attempt < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (attempt < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            int shift = Math.min(attempt - SPIN_TRIES - YIELD_TRIES, 10);
+            LockSupport.parkNanos(Math.min(1_000L << shift, MAX_PARK_NANOS));
+        }
+    }
+}
+
+// Padding so that head does not share a cache line with the object header and the fields above
+abstract class RingPadBeforeHead extends IntRingBuffer {
+    long p01, p02, p03, p04, p05, p06, p07;
+
+    RingPadBeforeHead(int capacity) {
+        super(capacity);
+    }
+}
+
+// Consumer-side fields
+abstract class RingHeadFields extends RingPadBeforeHead {
+    long head;        // Next sequence to read (accessed through VarHandles)
+    long cachedTail;  // SPSC only: consumer's last seen tail, avoids reading the producer's cache line on every poll
+
+    RingHeadFields(int capacity) {
+        super(capacity);
+    }
+}
+
+abstract class RingPadBetween extends RingHeadFields {
+    long p11, p12, p13, p14, p15, p16, p17;
+
+    RingPadBetween(int capacity) {
+        super(capacity);
+    }
+}
+
+// Producer-side fields
+abstract class RingTailFields extends RingPadBetween {
+    long tail;        // Next sequence to write (accessed through VarHandles)
+    long cachedHead;  // SPSC only: producer's last seen head
+
+    RingTailFields(int capacity) {
+        super(capacity);
+    }
+}
+
+abstract class RingPadAfterTail extends RingTailFields {
+    long p21, p22, p23, p24, p25, p26, p27;
+
+    RingPadAfterTail(int capacity) {
+        super(capacity);
+    }
+}
+
+/*
+ * Single-producer / single-consumer ring buffer.
+ * Only one thread may ever call offer/produce and only one thread may ever call poll/consume.
+ */
+final class SpscIntRingBuffer extends RingPadAfterTail {
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(RingHeadFields.class, "head", long.class);
+            TAIL = lookup.findVarHandle(RingTailFields.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    SpscIntRingBuffer(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public boolean offer(int item) {
+        long currentTail = tail; // Only the producer writes tail, a plain read is enough
+        if (currentTail - cachedHead > mask) {
+            cachedHead = (long) HEAD.getAcquire(this);
+            if (currentTail - cachedHead > mask) {
+                return false; // Full
+            }
+        }
+        items[(int) currentTail & mask] = item;
+        TAIL.setRelease(this, currentTail + 1); // Publish the item
+        return true;
+    }
+
+    @Override
+    public long poll() {
+        long currentHead = head; // Only the consumer writes head
+        if (currentHead >= cachedTail) {
+            cachedTail = (long) TAIL.getAcquire(this);
+            if (currentHead >= cachedTail) {
+                return EMPTY;
+            }
+        }
+        int item = items[(int) currentHead & mask];
+        HEAD.setRelease(this, currentHead + 1); // Hand the slot back to the producer
+        return item;
+    }
+}
+
+/*
+ * Multi-producer / multi-consumer ring buffer (bounded, lock-free).
+ * sequences[i] tells the state of slot i for the lap that is about to use it:
+ * - sequences[i] == pos      -> empty, ready to be written by the producer that claims position pos
+ * - sequences[i] == pos + 1  -> full, ready to be read by the consumer that claims position pos
+ * After reading, the consumer sets it to pos + capacity, the position of the slot's next lap.
+ */
+final class MpmcIntRingBuffer extends RingPadAfterTail {
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(RingHeadFields.class, "head", long.class);
+            TAIL = lookup.findVarHandle(RingTailFields.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long[] sequences;
+
+    MpmcIntRingBuffer(int capacity) {
+        super(capacity);
+        sequences = new long[capacity];
+        for (int i = 0; i < capacity; i++) {
+            sequences[i] = i;
+        }
+        VarHandle.releaseFence(); // Publish the initial sequences before the buffer is shared
+    }
+
+    @Override
+    public boolean offer(int item) {
+        long position = (long) TAIL.getAcquire(this);
+        while (true) {
+            int slot = (int) position & mask;
+            long sequence = (long) SEQUENCE.getAcquire(sequences, slot);
+            long difference = sequence - position;
+            if (difference == 0) {
+                if (TAIL.compareAndSet(this, position, position + 1)) {
+                    items[slot] = item;
+                    SEQUENCE.setRelease(sequences, slot, position + 1); // Publish the item
+                    return true;
+                }
+                position = (long) TAIL.getAcquire(this); // Another producer claimed it first
+            } else if (difference < 0) {
+                return false; // The slot still holds an unread item from the previous lap: full
+            } else {
+                position = (long) TAIL.getAcquire(this); // Fell behind other producers
+            }
+        }
+    }
+
+    @Override
+    public long poll() {
+        long position = (long) HEAD.getAcquire(this);
+        while (true) {
+            int slot = (int) position & mask;
+            long sequence = (long) SEQUENCE.getAcquire(sequences, slot);
+            long difference = sequence - (position + 1);
+            if (difference == 0) {
+                if (HEAD.compareAndSet(this, position, position + 1)) {
+                    int item = items[slot];
+                    SEQUENCE.setRelease(sequences, slot, position + mask + 1); // Free the slot for the next lap
+                    return item;
+                }
+                position = (long) HEAD.getAcquire(this);
+            } else if (difference < 0) {
+                return EMPTY; // Nothing written to this slot yet
+            } else {
+                position = (long) HEAD.getAcquire(this);
+            }
+        }
+    }
+}
+
+/*
+ * Moves the same number of items through Buffer, SpscIntRingBuffer and MpmcIntRingBuffer with one producer
+ * and one consumer and prints the throughput of each (Buffer's per-item println is silenced).
+ */
+class RingBufferExample {
+    public static void main(String[] args) throws InterruptedException {
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Buffer buffer = new Buffer(1024);
+        long bufferNanos = run(items, buffer::produce, () -> buffer.consume());
+        System.setOut(console);
+
+        SpscIntRingBuffer spsc = new SpscIntRingBuffer(1024);
+        long spscNanos = run(items, spsc::produce, spsc::consume);
+
+        MpmcIntRingBuffer mpmc = new MpmcIntRingBuffer(1024);
+        long mpmcNanos = run(items, mpmc::produce, mpmc::consume);
+
+        System.out.printf("Buffer (semaphores + LinkedList): %,.0f items/sec%n", items * 1e9 / bufferNanos);
+        System.out.printf("SpscIntRingBuffer:                %,.0f items/sec%n", items * 1e9 / spscNanos);
+        System.out.printf("MpmcIntRingBuffer:                %,.0f items/sec%n", items * 1e9 / mpmcNanos);
+    }
+
+    interface Producer {
+        void produce(int item) throws InterruptedException;
+    }
+
+    interface Consumer {
+        void consume() throws InterruptedException;
+    }
+
+    private static long run(int items, Producer producer, Consumer consumer) throws InterruptedException {
+        Thread producerThread = new Thread(() -> {
+            try {
+                for (int i = 0; i < items; i++) {
+                    producer.produce(i);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread consumerThread = new Thread(() -> {
+            try {
+                for (int i = 0; i < items; i++) {
+                    consumer.consume();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        long start = System.nanoTime();
+        producerThread.start();
+        consumerThread.start();
+        producerThread.join();
+        consumerThread.join();
+        return System.nanoTime() - start;
+    }
+}
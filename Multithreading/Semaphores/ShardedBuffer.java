@@ -0,0 +1,155 @@
+package OOPS.Multithreading.Semaphores;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Sharded Multi-Queue with Work Stealing:
+ *
+ * With 32 producers and 32 consumers on one Buffer (or one ring buffer), every thread fights over the same
+ * head/tail counters. ShardedBuffer splits the capacity over several MpmcIntRingBuffer shards:
+ *
+ * - Every producer thread gets a home shard (assigned round robin on first use) and always produces into it.
+ *   Since one producer's items all go through one FIFO shard, they are consumed in the order they were produced
+ *   (per-producer FIFO). Items of different producers have no global order (relaxed FIFO).
+ * - Every consumer thread also gets a home shard and drains it first. If it is empty, the consumer steals from
+ *   the other shards in round-robin order, so no shard is left behind while consumers are idle.
+ * - Threads only meet on the same counters when they share a shard, so contention drops with the shard count.
+ *
+ * produce/consume keep Buffer's blocking contract (waiting with the ring buffers' spin/yield/park back-off);
+ * offer/poll are the non-blocking versions.
+ */
+class ShardedBuffer {
+    private final MpmcIntRingBuffer[] shards;
+    private final AtomicInteger nextProducerShard = new AtomicInteger();
+    private final AtomicInteger nextConsumerShard = new AtomicInteger();
+    private final ThreadLocal<Integer> producerHome;
+    private final ThreadLocal<Integer> consumerHome;
+
+    /**
+     * @param shardCount        number of shards (usually about the number of producers or cores)
+     * @param capacityPerShard  capacity of every shard, a power of two
+     */
+    ShardedBuffer(int shardCount, int capacityPerShard) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        shards = new MpmcIntRingBuffer[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new MpmcIntRingBuffer(capacityPerShard);
+        }
+        producerHome = ThreadLocal.withInitial(() -> Math.floorMod(nextProducerShard.getAndIncrement(), shardCount));
+        consumerHome = ThreadLocal.withInitial(() -> Math.floorMod(nextConsumerShard.getAndIncrement(), shardCount));
+    }
+
+    // Adds the item to the calling thread's home shard if it has room
+    public boolean offer(int item) {
+        return shards[producerHome.get()].offer(item);
+    }
+
+    // Blocking add into the home shard (never into another shard, to keep per-producer FIFO)
+    public void produce(int item) throws InterruptedException {
+        shards[producerHome.get()].produce(item);
+    }
+
+    // Takes an item from the home shard, or steals one from the other shards; EMPTY if all are empty
+    public long poll() {
+        int home = consumerHome.get();
+        for (int i = 0; i < shards.length; i++) {
+            long item = shards[(home + i) % shards.length].poll();
+            if (item != IntRingBuffer.EMPTY) {
+                return item;
+            }
+        }
+        return IntRingBuffer.EMPTY;
+    }
+
+    // Blocking remove: waits until any shard has an item
+    public int consume() throws InterruptedException {
+        long item;
+        for (int attempt = 0; (item = poll()) == IntRingBuffer.EMPTY; attempt++) {
+            IntRingBuffer.backOff(attempt);
+        }
+        return (int) item;
+    }
+}
+
+/*
+ * Scaling benchmark: n producers and n consumers move the same total number of items through
+ * one shared MpmcIntRingBuffer and through a ShardedBuffer with n shards, for n = 1, 2, 4, ... and the core count
+ * itself (so e.g. 6 or 12 cores are measured too, not just the powers of two below them).
+ */
+class ShardedBufferBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int itemsPerProducer = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%10s %22s %22s%n", "producers", "single ring (items/s)", "sharded (items/s)");
+        for (int threads : threadCounts(maxThreads)) {
+            MpmcIntRingBuffer single = new MpmcIntRingBuffer(Integer.highestOneBit(1024 * threads - 1) << 1); // 1024 per producer, rounded up to a power of two
+            long singleNanos = run(threads, itemsPerProducer, single::produce, single::consume);
+
+            ShardedBuffer sharded = new ShardedBuffer(threads, 1024);
+            long shardedNanos = run(threads, itemsPerProducer, sharded::produce, sharded::consume);
+
+            long total = (long) threads * itemsPerProducer;
+            System.out.printf("%10d %22.0f %22.0f%n", threads, total * 1e9 / singleNanos, total * 1e9 / shardedNanos);
+        }
+    }
+
+    // 1, 2, 4, ... below maxThreads, then maxThreads itself (same stepping as GlobalDepositBenchmark.threadCounts)
+    static int[] threadCounts(int maxThreads) {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException("maxThreads must be at least 1: " + maxThreads);
+        }
+        int[] counts = new int[32];
+        int size = 0;
+        for (int threads = 1; threads < maxThreads; threads = threads <= maxThreads / 2 ? threads * 2 : maxThreads) {
+            counts[size++] = threads;
+        }
+        counts[size++] = maxThreads;
+        return Arrays.copyOf(counts, size);
+    }
+
+    interface Producer {
+        void produce(int item) throws InterruptedException;
+    }
+
+    interface Consumer {
+        int consume() throws InterruptedException;
+    }
+
+    private static long run(int threads, int itemsPerProducer, Producer producer, Consumer consumer)
+            throws InterruptedException {
+        Thread[] workers = new Thread[2 * threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < itemsPerProducer; i++) {
+                        producer.produce(i);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Producer" + t);
+            workers[threads + t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < itemsPerProducer; i++) {
+                        consumer.consume();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Consumer" + t);
+        }
+
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,279 @@
+package OOPS.Multithreading.Semaphores;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Bounded Buffer with Spill-to-Disk Overflow:
+ *
+ * Buffer.produce blocks on empty.acquire() when consumers fall behind, which stalls the producing thread
+ * (and whatever network reads feed it). SpillingBuffer never blocks producers on capacity:
+ *
+ * - While there is room, items go into a fixed in-memory ring (like Buffer).
+ * - When the ring is full, items are appended to memory-mapped segment files on disk instead. From that moment on,
+ *   new items keep going to disk until the spilled items have been consumed, so the overall order stays FIFO:
+ *   the ring always holds the oldest items, the segments hold newer ones, in order.
+ * - consume() takes from the ring first; once the ring is empty it reads the spilled segments back in order.
+ * - A fully read segment is reset and kept in a small pool for reuse (recycled), so a long backlog does not
+ *   keep creating files; segments beyond the pool size are deleted.
+ *
+ * Heap usage stays bounded by the ring capacity. Spilled data lives in the page cache and on disk, where the
+ * operating system can write it back and evict it as needed.
+ *
+ * A ReentrantLock with a Condition (as in PrinterSemaphore) protects the state: producers only hold it for one
+ * array store or one mapped-buffer write; consumers wait on the condition while everything is empty.
+ */
+class SpillingBuffer implements AutoCloseable {
+    private static final int SEGMENT_ITEMS = 1 << 20; // 4 MB per segment file
+
+    private final int[] ring;
+    private int ringHead;  // Index of the oldest item in the ring
+    private int ringCount; // Number of items in the ring
+
+    private final Path directory;
+    private final int maxFreeSegments;
+    private final Deque<Segment> spilled = new ArrayDeque<>(); // Segments holding unread items, oldest first
+    private final Deque<Segment> free = new ArrayDeque<>();    // Recycled empty segments
+    private long spilledCount;
+    private long segmentsCreated;
+    private int nextSegmentId;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    /**
+     * @param memoryCapacity   number of items kept in memory before spilling
+     * @param directory        where segment files are created
+     * @param maxFreeSegments  how many drained segment files are kept for reuse
+     */
+    SpillingBuffer(int memoryCapacity, Path directory, int maxFreeSegments) {
+        if (memoryCapacity <= 0) {
+            throw new IllegalArgumentException("Memory capacity must be positive: " + memoryCapacity);
+        }
+        this.ring = new int[memoryCapacity];
+        this.directory = directory;
+        this.maxFreeSegments = maxFreeSegments;
+    }
+
+    // Never blocks on capacity: goes to memory if possible, to disk otherwise
+    public void produce(int item) {
+        lock.lock();
+        try {
+            if (spilledCount == 0 && ringCount < ring.length) {
+                ring[(ringHead + ringCount) % ring.length] = item;
+                ringCount++;
+            } else {
+                spill(item);
+            }
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Waits until an item is available and returns the oldest one
+    public int consume() throws InterruptedException {
+        lock.lock();
+        try {
+            while (ringCount == 0 && spilledCount == 0) {
+                notEmpty.await();
+            }
+            if (ringCount > 0) {
+                int item = ring[ringHead];
+                ringHead = (ringHead + 1) % ring.length;
+                ringCount--;
+                return item;
+            }
+            return readSpilled();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSpilledCount() {
+        lock.lock();
+        try {
+            return spilledCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSegmentsCreated() {
+        lock.lock();
+        try {
+            return segmentsCreated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Deletes all segment files; items still spilled are lost
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            for (Segment segment : spilled) {
+                segment.delete();
+            }
+            for (Segment segment : free) {
+                segment.delete();
+            }
+            spilled.clear();
+            free.clear();
+            spilledCount = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void spill(int item) {
+        Segment tail = spilled.peekLast();
+        if (tail == null || tail.isFull()) {
+            tail = free.isEmpty() ? newSegment() : free.poll();
+            spilled.addLast(tail);
+        }
+        tail.write(item);
+        spilledCount++;
+    }
+
+    private int readSpilled() {
+        Segment head = spilled.peekFirst();
+        int item = head.read();
+        spilledCount--;
+        if (head.isDrained()) { // Everything written to it has been read (and it can take no more, or it is the last one)
+            spilled.pollFirst();
+            recycle(head);
+        }
+        return item;
+    }
+
+    private void recycle(Segment segment) {
+        if (free.size() < maxFreeSegments) {
+            segment.reset();
+            free.addLast(segment);
+        } else {
+            try {
+                segment.delete();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private Segment newSegment() {
+        try {
+            Path file = directory.resolve("spill-" + nextSegmentId++ + ".seg");
+            segmentsCreated++;
+            return new Segment(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create spill segment", e);
+        }
+    }
+
+    // One memory-mapped segment file of SEGMENT_ITEMS ints, written and read sequentially
+    private static final class Segment {
+        private final Path file;
+        private final MappedByteBuffer items;
+        private int writeIndex;
+        private int readIndex;
+
+        Segment(Path file) throws IOException {
+            this.file = file;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                this.items = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) SEGMENT_ITEMS * Integer.BYTES);
+            }
+            this.items.order(ByteOrder.nativeOrder());
+        }
+
+        boolean isFull() {
+            return writeIndex == SEGMENT_ITEMS;
+        }
+
+        boolean isDrained() {
+            return readIndex == writeIndex;
+        }
+
+        void write(int item) {
+            items.putInt(writeIndex++ * Integer.BYTES, item);
+        }
+
+        int read() {
+            return items.getInt(readIndex++ * Integer.BYTES);
+        }
+
+        void reset() {
+            writeIndex = 0;
+            readIndex = 0;
+        }
+
+        void delete() throws IOException {
+            Files.deleteIfExists(file); // The mapping itself is released when the buffer is garbage collected
+        }
+    }
+}
+
+/*
+ * Throughput test with a deliberately slow consumer: the producer never blocks even though the consumer
+ * is much slower, the backlog spills to disk, and the consumer still receives every item in order.
+ */
+class SpillingBufferExample {
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        Path directory = Files.createTempDirectory("spilling-buffer");
+
+        try (SpillingBuffer buffer = new SpillingBuffer(10_000, directory, 2)) {
+            long[] produceNanos = new long[1];
+            Thread producer = new Thread(() -> {
+                long start = System.nanoTime();
+                for (int i = 0; i < items; i++) {
+                    buffer.produce(i);
+                }
+                produceNanos[0] = System.nanoTime() - start;
+            }, "Producer");
+
+            boolean[] inOrder = {true};
+            Thread consumer = new Thread(() -> {
+                try {
+                    for (int i = 0; i < items; i++) {
+                        if (buffer.consume() != i) {
+                            inOrder[0] = false;
+                        }
+                        if (i % 1_000 == 0) {
+                            Thread.sleep(1); // Slow consumer
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Consumer");
+
+            long start = System.nanoTime();
+            producer.start();
+            consumer.start();
+            producer.join();
+            long backlog = buffer.getSpilledCount();
+            consumer.join();
+            long total = System.nanoTime() - start;
+
+            System.out.printf("Producer: %,d items in %d ms (%,.0f items/sec), never blocked%n",
+                    items, produceNanos[0] / 1_000_000, items * 1e9 / produceNanos[0]);
+            System.out.printf("Spilled backlog when the producer finished: %,d items%n", backlog);
+            System.out.printf("Consumer finished after %d ms, in order: %b, segment files created: %d%n",
+                    total / 1_000_000, inOrder[0], buffer.getSegmentsCreated());
+        }
+        Files.delete(directory);
+    }
+}
@@ -0,0 +1,183 @@
+package OOPS.Multithreading.Semaphores;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Reader-Writer Gate with a Striped Reader Indicator (BRAVO-style):
+ *
+ * Every gate so far keeps one reader counter (readerCount, readersIn, ...) that every reader on every core writes,
+ * so the cache line holding it bounces between cores on every read, even when no writer is around.
+ * StripedReaderGate spreads the readers over many counters instead:
+ *
+ * - Reader indicator: one counter per stripe, each on its own 128-byte block (two cache lines, which also defeats
+ *   adjacent-line prefetching). A thread always uses the stripe picked by its identity hash, so with enough stripes
+ *   every core mostly writes its own cache line.
+ * - lockRead: increment the own stripe, then check the writer flag. If no writer is active, the read lock is held.
+ *   Otherwise undo the increment, wait until the writer is done and try again.
+ * - lockWrite: writers serialize on a ReentrantLock, raise the writer flag (revoking the readers' fast path)
+ *   and then wait until every stripe has drained to zero.
+ * - Both sides write first and read the other side's state afterwards, with volatile/atomic accesses, so a reader and
+ *   a writer can never both miss each other (the same pattern as Dekker's algorithm).
+ *
+ * Writers have preference: new readers wait while a writer is active, so a writer waits only for the readers already
+ * inside. The price is a scan over all stripes per write, which is fine for read-mostly data.
+ */
+final class StripedReaderGate implements ReadWriteGate {
+    private static final int STRIDE = 16; // 16 longs = 128 bytes between two counters
+
+    private final AtomicLongArray stripes;
+    private final int mask;
+    private final ReentrantLock writerLock = new ReentrantLock();
+    private volatile boolean writerActive;
+
+    // About four stripes per core (a power of two, at least 8)
+    StripedReaderGate() {
+        this(Math.max(8, Integer.highestOneBit(4 * Runtime.getRuntime().availableProcessors() - 1) << 1));
+    }
+
+    // stripeCount must be a power of two
+    StripedReaderGate(int stripeCount) {
+        if (stripeCount <= 0 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a power of two: " + stripeCount);
+        }
+        this.stripes = new AtomicLongArray(stripeCount * STRIDE);
+        this.mask = stripeCount - 1;
+    }
+
+    @Override
+    public void lockRead() throws InterruptedException {
+        int slot = slot();
+        while (true) {
+            stripes.incrementAndGet(slot);
+            if (!writerActive) {
+                return;
+            }
+            stripes.decrementAndGet(slot); // Let the writer drain this stripe
+            for (int attempt = 0; writerActive; attempt++) {
+                pause(attempt);
+            }
+        }
+    }
+
+    @Override
+    public void unlockRead() {
+        stripes.decrementAndGet(slot());
+    }
+
+    @Override
+    public void lockWrite() throws InterruptedException {
+        writerLock.lockInterruptibly();
+        writerActive = true;
+        try {
+            for (int i = 0; i <= mask; i++) {
+                for (int attempt = 0; stripes.get(i * STRIDE) != 0; attempt++) {
+                    pause(attempt);
+                }
+            }
+        } catch (InterruptedException e) {
+            unlockWrite(); // Give up: let the readers back in
+            throw e;
+        }
+    }
+
+    @Override
+    public void unlockWrite() {
+        writerActive = false;
+        writerLock.unlock();
+    }
+
+    // The same thread always maps to the same stripe
+    private int slot() {
+        int hash = System.identityHashCode(Thread.currentThread());
+        hash ^= hash >>> 16;
+        return (hash & mask) * STRIDE;
+    }
+
+    // Spin, then yield, then park for short periods; throws if interrupted while waiting
+    private static void pause(int attempt) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (attempt < 100) {
+            Thread.onSpinWait();
+        } else if (attempt < 110) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(Math.min(1_000L << Math.min(attempt - 110, 10), 1_000_000L));
+        }
+    }
+}
+
+/*
+ * Read throughput at 1, 8, 32 and 64 reader threads for the semaphore-based Book (READER_PREFERENCE),
+ * ReentrantReadWriteLock and the striped gate, with one writer updating the data every 10 ms.
+ */
+class StripedReaderGateBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 1_000;
+        int[] readerCounts = {1, 8, 32, 64};
+
+        System.out.printf("%8s %24s %24s %24s%n", "readers", "semaphore Book", "ReentrantReadWriteLock",
+                "StripedReaderGate");
+        for (int readers : readerCounts) {
+            double semaphore = measure(new Book(ReadWriteGate.Policy.READER_PREFERENCE), readers, millis);
+            double reentrant = measure(new Book(ReadWriteGate.of(new ReentrantReadWriteLock())), readers, millis);
+            double striped = measure(new Book(ReadWriteGate.Policy.STRIPED), readers, millis);
+            System.out.printf("%8d %,24.0f %,24.0f %,24.0f%n", readers, semaphore, reentrant, striped);
+        }
+    }
+
+    private static double measure(Book book, int readers, long millis) throws InterruptedException {
+        run(book, readers, millis / 3); // Warmup
+        return run(book, readers, millis);
+    }
+
+    private static double run(Book book, int threads, long millis) throws InterruptedException {
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        Thread writer = new Thread(() -> {
+            try {
+                for (int value = 1; System.nanoTime() < deadline; value++) {
+                    book.writeValue(value);
+                    Thread.sleep(10);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        long[] counts = new long[threads];
+        Thread[] readers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            readers[t] = new Thread(() -> {
+                long count = 0;
+                long sink = 0;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        for (int i = 0; i < 64; i++) {
+                            sink += book.readValue();
+                        }
+                        count += 64;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                counts[index] = count + (sink == 42 ? 1 : 0); // Keeps the reads from being optimized away
+            });
+        }
+
+        writer.start();
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        long total = 0;
+        for (int t = 0; t < threads; t++) {
+            readers[t].join();
+            total += counts[t];
+        }
+        writer.join();
+        return total * 1000.0 / millis;
+    }
+}
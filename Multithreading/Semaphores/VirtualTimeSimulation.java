@@ -0,0 +1,416 @@
+package OOPS.Multithreading.Semaphores;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/*
+ * Discrete-Event Simulation of the Semaphores Examples (capacity planning in virtual time):
+ *
+ * PrinterPool, Buffer and Book model their work with Thread.sleep(2000/3000), so trying one configuration takes
+ * minutes of wall time. Here the same components run against a virtual clock instead of real threads:
+ *
+ * - Simulation keeps the events (time, action) in a PriorityQueue ordered by time. run() repeatedly takes the
+ *   earliest event, moves the clock to its time and runs it; nothing ever sleeps, so an hour of simulated
+ *   printing takes milliseconds.
+ * - The models follow the blocking rules of the real classes:
+ *   SimulatedPrinterPool = PrinterPool (fair permits, 3000 ms per document),
+ *   SimulatedBuffer      = Buffer (producer waits while full, consumer waits while empty),
+ *   SimulatedBook        = Book (2000 ms reads, 3000 ms writes, reader or writer preference).
+ *   Waiting threads become queued callbacks that run when the resource is handed to them.
+ * - Random arrivals and service times come from a seeded Random, so every run is reproducible.
+ * - Utilization is measured as a time integral: on every state change, busy units x elapsed time is added up.
+ *
+ * CapacitySweep prints throughput, queueing delay and utilization over permit counts, buffer sizes and
+ * read/write ratios.
+ */
+final class Simulation {
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private final Random random;
+    private long now;      // Virtual time in milliseconds
+    private long sequence; // Keeps events with the same time in scheduling order
+
+    private static final class Event implements Comparable<Event> {
+        final long time;
+        final long sequence;
+        final Runnable action;
+
+        Event(long time, long sequence, Runnable action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            return time != other.time ? Long.compare(time, other.time) : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    Simulation(long seed) {
+        this.random = new Random(seed);
+    }
+
+    long now() {
+        return now;
+    }
+
+    void schedule(long delayMillis, Runnable action) {
+        events.add(new Event(now + delayMillis, sequence++, action));
+    }
+
+    // Runs events until the queue is empty or the next one lies after endMillis
+    void run(long endMillis) {
+        while (!events.isEmpty() && events.peek().time <= endMillis) {
+            Event event = events.poll();
+            now = event.time;
+            event.action.run();
+        }
+        now = endMillis;
+    }
+
+    // Exponentially distributed delay (Poisson arrivals) with the given mean
+    long exponential(double meanMillis) {
+        return Math.round(-meanMillis * Math.log(1 - random.nextDouble()));
+    }
+
+    boolean chance(double probability) {
+        return random.nextDouble() < probability;
+    }
+}
+
+// Time integral of a quantity (busy permits, occupied slots, ...)
+final class TimeWeighted {
+    private final Simulation simulation;
+    private long lastChange;
+    private int value;
+    private double area;
+
+    TimeWeighted(Simulation simulation) {
+        this.simulation = simulation;
+    }
+
+    void add(int delta) {
+        area += (double) value * (simulation.now() - lastChange);
+        lastChange = simulation.now();
+        value += delta;
+    }
+
+    int get() {
+        return value;
+    }
+
+    double average() {
+        double total = area + (double) value * (simulation.now() - lastChange);
+        return simulation.now() == 0 ? 0 : total / simulation.now();
+    }
+}
+
+// Collected waiting times in milliseconds
+final class Delays {
+    private long[] values = new long[1024];
+    private int count;
+
+    void record(long millis) {
+        if (count == values.length) {
+            values = Arrays.copyOf(values, count * 2);
+        }
+        values[count++] = millis;
+    }
+
+    int count() {
+        return count;
+    }
+
+    double mean() {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += values[i];
+        }
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    long percentile(double p) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(count - 1, Math.floor(p * count))];
+    }
+}
+
+// PrinterPool: users arrive at random, wait for a printer in FIFO order and print for printMillis
+final class SimulatedPrinterPool {
+    private final Simulation simulation;
+    private final long printMillis;
+    private final ArrayDeque<Long> waiting = new ArrayDeque<>(); // Arrival times of queued users
+    private int freePrinters;
+    final TimeWeighted busy;
+    final Delays waits = new Delays();
+    long printed;
+
+    SimulatedPrinterPool(Simulation simulation, int printers, long printMillis) {
+        this.simulation = simulation;
+        this.freePrinters = printers;
+        this.printMillis = printMillis;
+        this.busy = new TimeWeighted(simulation);
+    }
+
+    // Poisson stream of users, one document each
+    void startArrivals(double meanInterArrivalMillis) {
+        simulation.schedule(simulation.exponential(meanInterArrivalMillis), () -> {
+            arrive(simulation.now());
+            startArrivals(meanInterArrivalMillis);
+        });
+    }
+
+    private void arrive(long arrivedAt) {
+        if (freePrinters > 0 && waiting.isEmpty()) {
+            freePrinters--;
+            print(arrivedAt);
+        } else {
+            waiting.addLast(arrivedAt); // availablePrinters.acquire() blocks
+        }
+    }
+
+    private void print(long arrivedAt) {
+        waits.record(simulation.now() - arrivedAt);
+        busy.add(1);
+        simulation.schedule(printMillis, () -> {
+            busy.add(-1);
+            printed++;
+            if (waiting.isEmpty()) {
+                freePrinters++; // availablePrinters.release()
+            } else {
+                print(waiting.pollFirst()); // The printer goes straight to the next user in line
+            }
+        });
+    }
+}
+
+// Buffer: one producer and one consumer with random production and consumption times
+final class SimulatedBuffer {
+    private final Simulation simulation;
+    private final int capacity;
+    private final double meanProduceMillis;
+    private final double meanConsumeMillis;
+    private final ArrayDeque<Long> items = new ArrayDeque<>(); // Times the items were put in
+    private boolean producerBlocked;
+    private boolean consumerBlocked;
+    private long producerBlockedSince;
+    long producerBlockedMillis;
+    final TimeWeighted consumerBusy;
+    final Delays itemDelays = new Delays();
+    long consumed;
+
+    SimulatedBuffer(Simulation simulation, int capacity, double meanProduceMillis, double meanConsumeMillis) {
+        this.simulation = simulation;
+        this.capacity = capacity;
+        this.meanProduceMillis = meanProduceMillis;
+        this.meanConsumeMillis = meanConsumeMillis;
+        this.consumerBusy = new TimeWeighted(simulation);
+    }
+
+    void start() {
+        simulation.schedule(simulation.exponential(meanProduceMillis), this::itemProduced);
+        consumerBlocked = true; // The consumer starts out waiting on full.acquire()
+    }
+
+    private void itemProduced() {
+        if (items.size() == capacity) {
+            producerBlocked = true; // empty.acquire() blocks
+            producerBlockedSince = simulation.now();
+            return;
+        }
+        put();
+    }
+
+    private void put() {
+        items.addLast(simulation.now());
+        if (consumerBlocked) {
+            consumerBlocked = false;
+            take();
+        }
+        simulation.schedule(simulation.exponential(meanProduceMillis), this::itemProduced);
+    }
+
+    private void take() {
+        itemDelays.record(simulation.now() - items.pollFirst());
+        if (producerBlocked) {
+            producerBlocked = false;
+            producerBlockedMillis += simulation.now() - producerBlockedSince;
+            put();
+        }
+        consumerBusy.add(1);
+        simulation.schedule(simulation.exponential(meanConsumeMillis), () -> {
+            consumerBusy.add(-1);
+            consumed++;
+            if (items.isEmpty()) {
+                consumerBlocked = true; // full.acquire() blocks
+            } else {
+                take();
+            }
+        });
+    }
+}
+
+// Book: a random mix of readers and writers under the reader- or writer-preference admission rules
+final class SimulatedBook {
+    private final Simulation simulation;
+    private final boolean writerPreference;
+    private final long readMillis;
+    private final long writeMillis;
+    private final ArrayDeque<Long> waitingReaders = new ArrayDeque<>();
+    private final ArrayDeque<Long> waitingWriters = new ArrayDeque<>();
+    private int readers;
+    private boolean writing;
+    final TimeWeighted inUse; // 1 while anybody reads or writes
+    final Delays readerWaits = new Delays();
+    final Delays writerWaits = new Delays();
+    long completed;
+
+    SimulatedBook(Simulation simulation, ReadWriteGate.Policy policy, long readMillis, long writeMillis) {
+        this.simulation = simulation;
+        switch (policy) {
+            case READER_PREFERENCE:
+                this.writerPreference = false;
+                break;
+            case WRITER_PREFERENCE:
+                this.writerPreference = true;
+                break;
+            default: // PHASE_FAIR and STRIPED admit readers differently; simulating them as either would invent numbers
+                throw new IllegalArgumentException("Policy not modelled by the simulation: " + policy);
+        }
+        this.readMillis = readMillis;
+        this.writeMillis = writeMillis;
+        this.inUse = new TimeWeighted(simulation);
+    }
+
+    void startArrivals(double meanInterArrivalMillis, double readFraction) {
+        simulation.schedule(simulation.exponential(meanInterArrivalMillis), () -> {
+            if (simulation.chance(readFraction)) {
+                arriveReader(simulation.now());
+            } else {
+                arriveWriter(simulation.now());
+            }
+            startArrivals(meanInterArrivalMillis, readFraction);
+        });
+    }
+
+    private void arriveReader(long arrivedAt) {
+        boolean blocked = writing || (writerPreference && !waitingWriters.isEmpty());
+        if (blocked) {
+            waitingReaders.addLast(arrivedAt);
+        } else {
+            read(arrivedAt);
+        }
+    }
+
+    private void arriveWriter(long arrivedAt) {
+        if (writing || readers > 0) {
+            waitingWriters.addLast(arrivedAt);
+        } else {
+            write(arrivedAt);
+        }
+    }
+
+    private void read(long arrivedAt) {
+        readerWaits.record(simulation.now() - arrivedAt);
+        if (readers++ == 0) {
+            inUse.add(1);
+        }
+        simulation.schedule(readMillis, () -> {
+            completed++;
+            if (--readers == 0) {
+                inUse.add(-1);
+                if (!waitingWriters.isEmpty()) {
+                    write(waitingWriters.pollFirst());
+                }
+            }
+        });
+    }
+
+    private void write(long arrivedAt) {
+        writerWaits.record(simulation.now() - arrivedAt);
+        writing = true;
+        inUse.add(1);
+        simulation.schedule(writeMillis, () -> {
+            completed++;
+            writing = false;
+            inUse.add(-1);
+            if (writerPreference && !waitingWriters.isEmpty()) {
+                write(waitingWriters.pollFirst());
+            } else if (!waitingReaders.isEmpty()) {
+                while (!waitingReaders.isEmpty()) {
+                    read(waitingReaders.pollFirst()); // All waiting readers enter together
+                }
+            } else if (!waitingWriters.isEmpty()) {
+                write(waitingWriters.pollFirst());
+            }
+        });
+    }
+}
+
+/*
+ * Capacity-planning sweeps over one simulated hour per configuration:
+ * - PrinterPool: 1..8 printers, one document every 1.5 s on average (3 s of printing each)
+ * - Buffer: capacities 1..64, producer and consumer both average 100 ms per item
+ * - Book: 50%..99% reads, one request every 1.5 s on average, reader and writer preference
+ *
+ * Usage: java OOPS.Multithreading.Semaphores.CapacitySweep [simulatedMinutes] [seed]
+ */
+class CapacitySweep {
+    public static void main(String[] args) {
+        long horizon = (args.length > 0 ? Long.parseLong(args[0]) : 60) * 60_000L;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        long start = System.nanoTime();
+
+        System.out.println("PrinterPool (3000 ms per document, one arrival every 1500 ms on average)");
+        System.out.printf("%9s %12s %14s %14s %12s%n", "printers", "docs/min", "mean wait ms", "p99 wait ms",
+                "utilization");
+        for (int printers = 1; printers <= 8; printers++) {
+            Simulation simulation = new Simulation(seed);
+            SimulatedPrinterPool pool = new SimulatedPrinterPool(simulation, printers, 3000);
+            pool.startArrivals(1500);
+            simulation.run(horizon);
+            System.out.printf("%9d %12.1f %14.0f %14d %11.0f%%%n", printers, pool.printed * 60_000.0 / horizon,
+                    pool.waits.mean(), pool.waits.percentile(0.99), 100 * pool.busy.average() / printers);
+        }
+
+        System.out.println();
+        System.out.println("Buffer (producer and consumer both 100 ms per item on average)");
+        System.out.printf("%9s %12s %16s %18s %20s%n", "capacity", "items/sec", "mean delay ms", "producer blocked",
+                "consumer utilization");
+        for (int capacity = 1; capacity <= 64; capacity *= 2) {
+            Simulation simulation = new Simulation(seed);
+            SimulatedBuffer buffer = new SimulatedBuffer(simulation, capacity, 100, 100);
+            buffer.start();
+            simulation.run(horizon);
+            System.out.printf("%9d %12.2f %16.0f %17.0f%% %19.0f%%%n", capacity, buffer.consumed * 1000.0 / horizon,
+                    buffer.itemDelays.mean(), 100.0 * buffer.producerBlockedMillis / horizon,
+                    100 * buffer.consumerBusy.average());
+        }
+
+        System.out.println();
+        System.out.println("Book (2000 ms reads, 3000 ms writes, one request every 1500 ms on average)");
+        System.out.printf("%-18s %6s %10s %18s %18s %18s %10s%n", "policy", "reads", "ops/min", "reader wait ms",
+                "writer wait ms", "writer p99 ms", "in use");
+        for (ReadWriteGate.Policy policy : new ReadWriteGate.Policy[]{ReadWriteGate.Policy.READER_PREFERENCE,
+                ReadWriteGate.Policy.WRITER_PREFERENCE}) {
+            for (double readFraction : new double[]{0.5, 0.8, 0.9, 0.95, 0.99}) {
+                Simulation simulation = new Simulation(seed);
+                SimulatedBook book = new SimulatedBook(simulation, policy, 2000, 3000);
+                book.startArrivals(1500, readFraction);
+                simulation.run(horizon);
+                System.out.printf("%-18s %5.0f%% %10.1f %18.0f %18.0f %18d %9.0f%%%n", policy, 100 * readFraction,
+                        book.completed * 60_000.0 / horizon, book.readerWaits.mean(), book.writerWaits.mean(),
+                        book.writerWaits.percentile(0.99), 100 * book.inUse.average());
+            }
+        }
+
+        System.out.printf("%nSimulated %d minutes per configuration in %d ms of wall time%n",
+                horizon / 60_000, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,25 @@
+package OOPS.Multithreading.Synchronization;
+
+/**
+ * Common API of the BankAccount Variants:
+ *
+ * Purpose:
+ * BankAccount (instance monitor), ReentrantLockBankAccount, StampedBankAccount (optimistic reads) and
+ * CasBankAccount (lock-free compare-and-set) implement the same operations. Code written against Account,
+ * e.g. a generic <A extends Account<A>> method, runs unchanged on any of them,
+ * so switching the strategy only means changing the constructor call.
+ *
+ * Notes:
+ * - A is the implementing class itself. A transfer always goes to an account of the same kind, because each variant
+ *   coordinates the two sides of a transfer with its own kind of lock (or with none at all).
+ * - withdraw and transfer never throw on insufficient funds; they leave the balances untouched and log the refusal.
+ */
+interface Account<A extends Account<A>> {
+    void deposit(int amount);
+
+    void withdraw(int amount);
+
+    void transfer(A destination, int amount);
+
+    int getBalance();
+}
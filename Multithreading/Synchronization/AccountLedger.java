@@ -0,0 +1,253 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Off-Heap Account Ledger:
+ *
+ * Purpose:
+ * Stores the balances of many accounts in one off-heap block of memory instead of one BankAccount object per account.
+ * Accounts are addressed by a dense id (0, 1, 2, ... size - 1) and every balance is a long in its own 8-byte slot.
+ *
+ * Notes:
+ * 1. Why off-heap:
+ *    - Each BankAccount costs an object header for the account, plus another object (and header) for its private lock.
+ *    - With millions of accounts the GC has to trace and copy all of those objects on every collection.
+ *    - A direct ByteBuffer is a single object for the GC, no matter how many balances it holds.
+ *
+ * 2. Striped locks:
+ *    - Instead of one lock per account, the ledger keeps a small fixed array of lock objects (stripes).
+ *    - Account id maps to stripe (id & (stripes - 1)), so many accounts share one lock.
+ *    - Operations on accounts in different stripes run in parallel; the memory cost of locking no longer grows with the accounts.
+ *    - Whole-ledger operations (beginCut, load) nest every stripe monitor, one stack frame each,
+ *      so the stripe count is capped at MAX_STRIPES to keep that nesting well within any thread's stack.
+ *
+ * 3. Transfer:
+ *    - Locks both stripes in ascending stripe index order, which is a total order, so two transfers can never deadlock.
+ *    - If both accounts fall into the same stripe, that stripe is locked only once.
+ */
+class AccountLedger {
+    private static final int SLOT_SIZE = Long.BYTES;
+    static final long FAILED = -1; // Returned by the journaled variants when the funds are insufficient
+    static final int MAX_STRIPES = 1024; // Also the default
+
+    private final ByteBuffer slots; // balance of account id is at byte offset id * SLOT_SIZE
+    private final Object[] stripes;
+    private final int stripeMask;
+    private final int size;
+    private volatile LedgerSnapshot.Cut activeCut; // Set while a snapshot is being taken
+
+    public AccountLedger(int size, int stripeCount) {
+        if (size <= 0 || size > Integer.MAX_VALUE / SLOT_SIZE) {
+            throw new IllegalArgumentException("Unsupported ledger size: " + size);
+        }
+        if (stripeCount <= 0 || Integer.bitCount(stripeCount) != 1 || stripeCount > MAX_STRIPES) {
+            throw new IllegalArgumentException("Stripe count must be a power of two up to " + MAX_STRIPES + ": " + stripeCount);
+        }
+        this.size = size;
+        this.slots = ByteBuffer.allocateDirect(size * SLOT_SIZE).order(ByteOrder.nativeOrder());
+        this.stripes = new Object[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Object();
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    public AccountLedger(int size) {
+        this(size, MAX_STRIPES);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void deposit(int accountId, long amount) {
+        deposit(accountId, amount, null);
+    }
+
+    // Returns false if the account does not hold enough funds
+    public boolean withdraw(int accountId, long amount) {
+        return withdraw(accountId, amount, null) != FAILED;
+    }
+
+    // Returns false if the source account does not hold enough funds
+    public boolean transfer(int fromId, int toId, long amount) {
+        return transfer(fromId, toId, amount, null) != FAILED;
+    }
+
+    /*
+     * Journaled variants used by DurableLedger.
+     * Room in the journal is reserved before any stripe lock is taken (the only step that may wait), and the record
+     * is appended under the stripe lock *before* the balance is written: if the append throws, no balance has changed,
+     * and the order of records in the log always matches the order in which the balances changed.
+     * Account ids are checked up front, so nothing after the append can fail halfway.
+     * They return the record's sequence number (0 when no journal is given) or FAILED if the funds were insufficient
+     * and nothing was logged.
+     */
+    long deposit(int accountId, long amount, WriteAheadLog journal) {
+        checkId(accountId);
+        reserve(journal);
+        synchronized (stripeOf(accountId)) {
+            long sequence = append(journal, WriteAheadLog.DEPOSIT, accountId, -1, amount);
+            put(accountId, get(accountId) + amount);
+            return sequence;
+        }
+    }
+
+    long withdraw(int accountId, long amount, WriteAheadLog journal) {
+        checkId(accountId);
+        reserve(journal);
+        synchronized (stripeOf(accountId)) {
+            long balance = get(accountId);
+            if (balance < amount) {
+                cancelReservation(journal);
+                return FAILED;
+            }
+            long sequence = append(journal, WriteAheadLog.WITHDRAW, accountId, -1, amount);
+            put(accountId, balance - amount);
+            return sequence;
+        }
+    }
+
+    long transfer(int fromId, int toId, long amount, WriteAheadLog journal) {
+        checkId(fromId);
+        checkId(toId);
+        reserve(journal);
+        int fromStripe = fromId & stripeMask;
+        int toStripe = toId & stripeMask;
+
+        // Ensure a consistent locking order to avoid deadlock
+        Object first = stripes[Math.min(fromStripe, toStripe)];
+        Object second = stripes[Math.max(fromStripe, toStripe)];
+
+        synchronized (first) {
+            synchronized (second) {
+                long fromBalance = get(fromId);
+                if (fromBalance < amount) {
+                    cancelReservation(journal);
+                    return FAILED;
+                }
+                long sequence = append(journal, WriteAheadLog.TRANSFER, fromId, toId, amount);
+                put(fromId, fromBalance - amount);
+                put(toId, get(toId) + amount);
+                return sequence;
+            }
+        }
+    }
+
+    public long getBalance(int accountId) {
+        synchronized (stripeOf(accountId)) {
+            return get(accountId);
+        }
+    }
+
+    /*
+     * Transfer without taking any stripe lock.
+     * Only safe when the caller guarantees that no other thread touches either account at the same time
+     * (for example TransferEngine, which only runs transfers on disjoint accounts in parallel).
+     */
+    boolean transferUnlocked(int fromId, int toId, long amount) {
+        long fromBalance = get(fromId);
+        if (fromBalance < amount) {
+            return false;
+        }
+        put(fromId, fromBalance - amount);
+        put(toId, get(toId) + amount);
+        return true;
+    }
+
+    /*
+     * Snapshot support (used by LedgerSnapshot):
+     * beginCut() briefly takes every stripe lock, runs atCut (e.g. to read the log position) and activates the cut.
+     * From then on, the first write to every slot first preserves the slot's old value in the cut (copy-on-write),
+     * while copyUnchangedInto() copies all slots that were not written yet. Together they capture every balance
+     * exactly as it was at the moment of the cut, without stopping writers for longer than the cut itself.
+     * Must not overlap with a TransferEngine batch, which writes slots without taking stripe locks.
+     * Only one cut can be active at a time.
+     */
+    void beginCut(LedgerSnapshot.Cut cut, Runnable atCut) {
+        withStripesLocked(0, () -> {
+            if (activeCut != null) {
+                throw new IllegalStateException("A snapshot of this ledger is already in progress");
+            }
+            atCut.run();
+            activeCut = cut;
+        });
+    }
+
+    void copyUnchangedInto(LedgerSnapshot.Cut cut) {
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            synchronized (stripes[stripe]) {
+                for (int accountId = stripe; accountId < size; accountId += stripes.length) {
+                    cut.preserve(accountId, get(accountId));
+                }
+            }
+        }
+    }
+
+    void endCut() {
+        activeCut = null;
+    }
+
+    // Replaces all balances with the ones in source (a buffer of size longs in native byte order)
+    void load(ByteBuffer source) {
+        withStripesLocked(0, () -> slots.duplicate().put(source.duplicate()));
+    }
+
+    // Takes the stripe locks in index order (the same order transfer uses), then runs the action;
+    // recursion depth is the stripe count, at most MAX_STRIPES
+    private void withStripesLocked(int stripe, Runnable action) {
+        if (stripe == stripes.length) {
+            action.run();
+            return;
+        }
+        synchronized (stripes[stripe]) {
+            withStripesLocked(stripe + 1, action);
+        }
+    }
+
+    private static void reserve(WriteAheadLog journal) {
+        if (journal != null) {
+            journal.reserve();
+        }
+    }
+
+    private static void cancelReservation(WriteAheadLog journal) {
+        if (journal != null) {
+            journal.cancelReservation();
+        }
+    }
+
+    private static long append(WriteAheadLog journal, int op, int accountId, int counterpartId, long amount) {
+        return journal == null ? 0 : journal.append(op, accountId, counterpartId, amount);
+    }
+
+    private Object stripeOf(int accountId) {
+        return stripes[accountId & stripeMask];
+    }
+
+    // Raw slot access, callers must hold the stripe lock of the account
+    private long get(int accountId) {
+        return slots.getLong(offsetOf(accountId));
+    }
+
+    private void put(int accountId, long balance) {
+        LedgerSnapshot.Cut cut = activeCut;
+        if (cut != null) {
+            cut.preserve(accountId, get(accountId)); // Keep the value as of the cut before overwriting it
+        }
+        slots.putLong(offsetOf(accountId), balance);
+    }
+
+    private int offsetOf(int accountId) {
+        checkId(accountId);
+        return accountId * SLOT_SIZE;
+    }
+
+    private void checkId(int accountId) {
+        if (accountId < 0 || accountId >= size) {
+            throw new IndexOutOfBoundsException("Account id " + accountId + " outside ledger of size " + size);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmark: Balance Queries (95% reads / 5% writes) against Monitor-Based Writers
+ *
+ * Purpose:
+ * All threads hammer a few hot accounts; 95% of the operations read the balance, 5% deposit or withdraw.
+ * Three read paths are compared:
+ * - monitor:  synchronized (account) { getBalance() }, i.e. what a synchronized getBalance would cost
+ * - volatile: BankAccount.getBalance(), a plain volatile read next to the synchronized writers
+ * - stamped:  StampedBankAccount.getBalance(), an optimistic StampedLock read next to write-locked writers
+ *
+ * Usage:
+ *   java OOPS.Multithreading.Synchronization.BalanceReadBenchmark [threads] [seconds] [hotAccounts]
+ */
+public class BalanceReadBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int hotAccounts = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        BankAccount[] accounts = new BankAccount[hotAccounts];
+        StampedBankAccount[] stampedAccounts = new StampedBankAccount[hotAccounts];
+        for (int i = 0; i < hotAccounts; i++) {
+            accounts[i] = new BankAccount(1_000_000);
+            stampedAccounts[i] = new StampedBankAccount(1_000_000);
+        }
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Writers log through EventLog
+
+        long monitor = LedgerBenchmark.run(threads, seconds, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            BankAccount account = accounts[random.nextInt(hotAccounts)];
+            int dice = random.nextInt(100);
+            if (dice >= 5) {
+                synchronized (account) {
+                    account.getBalance();
+                }
+            } else if (dice < 3) {
+                account.deposit(1);
+            } else {
+                account.withdraw(1);
+            }
+        });
+
+        long plainVolatile = LedgerBenchmark.run(threads, seconds, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            BankAccount account = accounts[random.nextInt(hotAccounts)];
+            int dice = random.nextInt(100);
+            if (dice >= 5) {
+                account.getBalance();
+            } else if (dice < 3) {
+                account.deposit(1);
+            } else {
+                account.withdraw(1);
+            }
+        });
+
+        long stamped = LedgerBenchmark.run(threads, seconds, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            StampedBankAccount account = stampedAccounts[random.nextInt(hotAccounts)];
+            int dice = random.nextInt(100);
+            if (dice >= 5) {
+                account.getBalance();
+            } else if (dice < 3) {
+                account.deposit(1);
+            } else {
+                account.withdraw(1);
+            }
+        });
+
+        EventLog.DEFAULT.flush();
+        System.setOut(console);
+
+        System.out.printf("Threads: %d, hot accounts: %d, 95%% reads / 5%% writes%n", threads, hotAccounts);
+        System.out.printf("monitor reads:             %,d ops/sec%n", monitor / seconds);
+        System.out.printf("volatile reads:            %,d ops/sec%n", plainVolatile / seconds);
+        System.out.printf("StampedLock optimistic:    %,d ops/sec%n", stamped / seconds);
+    }
+}
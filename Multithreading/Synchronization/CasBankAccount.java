@@ -0,0 +1,96 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-Free (CAS) Variant of BankAccount:
+ *
+ * Purpose:
+ * Provides the same operations as BankAccount (deposit, withdraw, globalDeposit, transfer, getBalance),
+ * but keeps the balance in an AtomicInteger instead of guarding a plain int with the instance monitor.
+ *
+ * Notes:
+ * 1. Compare-And-Set (CAS):
+ *    - compareAndSet(expected, updated) only writes the new value if the field still holds the expected value.
+ *    - If another thread changed the balance in between, the CAS fails and the loop simply re-reads and retries.
+ *    - No thread is ever parked, so there is no monitor inflation under contention.
+ *
+ * 2. Withdraw with the funds check folded in:
+ *    - The "balance >= amount" check and the subtraction happen on the same observed value,
+ *      so the check can never be invalidated by a concurrent withdrawal (no check-then-act race).
+ *
+ * 3. Transfer:
+ *    - A transfer is a successful withdraw from the source followed by a deposit to the destination.
+ *    - Money is never created or lost, but another thread may briefly observe the amount "in flight"
+ *      (already taken from the source, not yet added to the destination).
+ *    - Since no locks are taken, there is no lock ordering to get wrong and no possibility of deadlock.
+ *
+ * 4. Both classes implement Account, so code written against Account<A> can swap one for the other.
+ *    The balance stays an int so the signatures match BankAccount exactly.
+ */
+class CasBankAccount implements Account<CasBankAccount> {
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private final int id = NEXT_ID.getAndIncrement(); // Unique account id, used in log events
+    private final AtomicInteger balance;
+
+    public CasBankAccount(int initialBalance) {
+        this.balance = new AtomicInteger(initialBalance);
+    }
+
+    // Lock-free deposit: a single atomic add
+    @Override
+    public void deposit(int amount) {
+        EventLog.DEFAULT.record(EventLog.DEPOSIT, id, -1, amount);
+        balance.addAndGet(amount);
+    }
+
+    // Lock-free withdraw: CAS loop with the insufficient-funds check folded in
+    @Override
+    public void withdraw(int amount) {
+        EventLog.DEFAULT.record(EventLog.WITHDRAW, id, -1, amount);
+        if (!tryWithdraw(amount)) {
+            EventLog.DEFAULT.record(EventLog.INSUFFICIENT_FUNDS, id, -1, amount);
+        }
+    }
+
+    // No class-level lock is needed, the deposit itself is already atomic
+    public static void globalDeposit(CasBankAccount account, int amount) {
+        EventLog.DEFAULT.record(EventLog.GLOBAL_DEPOSIT, account.id, -1, amount);
+        account.deposit(amount);
+    }
+
+    // Transfer without locks: withdraw from this account, then deposit into the destination
+    @Override
+    public void transfer(CasBankAccount destination, int amount) {
+        EventLog.DEFAULT.record(EventLog.TRANSFER, id, destination.id, amount);
+        if (tryWithdraw(amount)) {
+            destination.balance.addAndGet(amount);
+        } else {
+            EventLog.DEFAULT.record(EventLog.TRANSFER_FAILED, id, destination.id, amount);
+        }
+    }
+
+    // Getter method for balance (a volatile read, always up to date)
+    @Override
+    public int getBalance() {
+        return balance.get();
+    }
+
+    // Returns false (and leaves the balance untouched) if the funds are insufficient
+    private boolean tryWithdraw(int amount) {
+        int current;
+        do {
+            current = balance.get();
+            if (current < amount) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - amount));
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "CasBankAccount-" + id;
+    }
+}
@@ -0,0 +1,127 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Lock Contention Statistics for one account, published over JMX:
+ *
+ * Purpose:
+ * Collects how long threads wait to acquire an account's locks (acquire wait) and how long they keep them (hold time),
+ * plus how often an acquisition was contended, so hot accounts can be found in a running system.
+ *
+ * Notes:
+ * 1. Sampling:
+ *    - Only one in every sampleEvery acquisitions is timed, the others pay for a single random number.
+ *    - Counts reported here are counts of sampled acquisitions; multiply by sampleEvery for an estimate of the total.
+ *
+ * 2. Contended acquisition:
+ *    - An uncontended monitor enter takes a few tens of nanoseconds, so a wait above CONTENDED_NANOS
+ *      means the thread found the lock held by somebody else.
+ *
+ * 3. Recording only touches LatencyHistogram and LongAdder, so it never allocates.
+ */
+class ContentionStats implements ContentionStatsMBean {
+    static final long CONTENDED_NANOS = 1_000;
+
+    private final int sampleEvery;
+    private final LatencyHistogram acquireWait = new LatencyHistogram();
+    private final LatencyHistogram holdTime = new LatencyHistogram();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+
+    public ContentionStats(int sampleEvery) {
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("sampleEvery must be at least 1: " + sampleEvery);
+        }
+        this.sampleEvery = sampleEvery;
+    }
+
+    // Decides whether the current acquisition should be timed
+    boolean shouldSample() {
+        return sampleEvery == 1 || ThreadLocalRandom.current().nextInt(sampleEvery) == 0;
+    }
+
+    void record(long waitNanos, long holdNanos) {
+        sampled.increment();
+        if (waitNanos > CONTENDED_NANOS) {
+            contended.increment();
+        }
+        acquireWait.record(waitNanos);
+        holdTime.record(holdNanos);
+    }
+
+    /**
+     * Registers these statistics with the platform MBean server under
+     * OOPS.Multithreading.Synchronization:type=BankAccount,name=accountName
+     *
+     * @return the name the MBean was registered under
+     */
+    public ObjectName register(String accountName) throws JMException {
+        ObjectName name = new ObjectName("OOPS.Multithreading.Synchronization:type=BankAccount,name="
+                + ObjectName.quote(accountName));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        return name;
+    }
+
+    @Override
+    public long getSampleEvery() {
+        return sampleEvery;
+    }
+
+    @Override
+    public long getSampledAcquisitions() {
+        return sampled.sum();
+    }
+
+    @Override
+    public long getContendedAcquisitions() {
+        return contended.sum();
+    }
+
+    @Override
+    public long getAcquireWaitP50Nanos() {
+        return acquireWait.percentile(0.50);
+    }
+
+    @Override
+    public long getAcquireWaitP99Nanos() {
+        return acquireWait.percentile(0.99);
+    }
+
+    @Override
+    public long getAcquireWaitP999Nanos() {
+        return acquireWait.percentile(0.999);
+    }
+
+    @Override
+    public long getAcquireWaitMaxNanos() {
+        return acquireWait.getMax();
+    }
+
+    @Override
+    public long getHoldTimeP50Nanos() {
+        return holdTime.percentile(0.50);
+    }
+
+    @Override
+    public long getHoldTimeP99Nanos() {
+        return holdTime.percentile(0.99);
+    }
+
+    @Override
+    public long getHoldTimeMaxNanos() {
+        return holdTime.getMax();
+    }
+
+    @Override
+    public void reset() {
+        acquireWait.reset();
+        holdTime.reset();
+        sampled.reset();
+        contended.reset();
+    }
+}
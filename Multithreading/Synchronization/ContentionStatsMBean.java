@@ -0,0 +1,31 @@
+package OOPS.Multithreading.Synchronization;
+
+/**
+ * JMX management interface of ContentionStats.
+ *
+ * A standard MBean is described by a public interface named after the implementing class plus "MBean";
+ * every getter shows up as a read-only attribute in JConsole / VisualVM, every other method as an operation.
+ */
+public interface ContentionStatsMBean {
+    long getSampleEvery();
+
+    long getSampledAcquisitions();
+
+    long getContendedAcquisitions();
+
+    long getAcquireWaitP50Nanos();
+
+    long getAcquireWaitP99Nanos();
+
+    long getAcquireWaitP999Nanos();
+
+    long getAcquireWaitMaxNanos();
+
+    long getHoldTimeP50Nanos();
+
+    long getHoldTimeP99Nanos();
+
+    long getHoldTimeMaxNanos();
+
+    void reset();
+}
@@ -0,0 +1,120 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable Ledger (AccountLedger + WriteAheadLog):
+ *
+ * Purpose:
+ * An AccountLedger whose deposits, withdrawals and transfers survive a crash. Every successful mutation is logged
+ * to a WriteAheadLog, and the call only returns after the log record is on disk.
+ *
+ * Notes:
+ * - Room in the log is reserved before the account's stripe lock is taken, so a full batch never stalls a lock holder.
+ * - The record is appended while the stripe lock is held and before the balance changes (so the log order equals
+ *   the balance-change order, and a failed append leaves the balance untouched), but the wait for the disk happens
+ *   after the lock is released, so a slow fsync never blocks other accounts.
+ * - Because of that, another thread may briefly see a balance change whose record is not yet durable.
+ *   The caller that made the change, however, never returns before it is.
+ * - On open, the balances are rebuilt by replaying the log, either from the start or, if a snapshot is given,
+ *   by restoring the snapshot and replaying only the records written after it (see LedgerSnapshot).
+ * - Checkpoints are serialized: they share the snapshot's temporary file and the ledger supports one cut at a time.
+ * - A checkpoint shortens restarts but not the log: nothing truncates or rotates it, so it grows without bound.
+ *   Log positions are absolute file offsets (recorded in snapshots), so dropping the prefix before a durable
+ *   checkpoint needs a segmented log first; that is not implemented here.
+ */
+class DurableLedger implements AutoCloseable {
+    private final AccountLedger ledger;
+    private final WriteAheadLog log;
+    private final Object checkpointLock = new Object();
+
+    private DurableLedger(AccountLedger ledger, WriteAheadLog log) {
+        this.ledger = ledger;
+        this.log = log;
+    }
+
+    /**
+     * Opens the log file (creating it if needed) and rebuilds the balances from it.
+     *
+     * @param commitWindow how long the log waits for more writers before forcing a batch to disk
+     */
+    static DurableLedger open(int size, Path logFile, long commitWindow, TimeUnit unit) throws IOException {
+        AccountLedger ledger = new AccountLedger(size);
+        WriteAheadLog log = WriteAheadLog.open(logFile, commitWindow, unit, 4096);
+        log.replay(ledger, 0);
+        return new DurableLedger(ledger, log);
+    }
+
+    /**
+     * Opens the log and rebuilds the balances from the snapshot plus the log records written after it.
+     * Falls back to replaying the whole log if the snapshot is missing or fails validation.
+     */
+    static DurableLedger open(int size, Path logFile, Path snapshotFile, long commitWindow, TimeUnit unit)
+            throws IOException {
+        AccountLedger ledger = new AccountLedger(size);
+        WriteAheadLog log = WriteAheadLog.open(logFile, commitWindow, unit, 4096);
+        long replayFrom = 0;
+        if (Files.exists(snapshotFile)) {
+            try {
+                LedgerSnapshot snapshot = LedgerSnapshot.open(snapshotFile);
+                if (snapshot.getLogPosition() > log.endPosition()) {
+                    throw new IOException("Snapshot is ahead of the log (log truncated or replaced)");
+                }
+                snapshot.restoreInto(ledger);
+                replayFrom = snapshot.getLogPosition();
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Ignoring unusable snapshot, replaying the whole log: " + e.getMessage());
+                ledger = new AccountLedger(size);
+            }
+        }
+        log.replay(ledger, replayFrom);
+        return new DurableLedger(ledger, log);
+    }
+
+    // Writes a consistent snapshot of all balances while writers keep running; one checkpoint at a time
+    public void checkpoint(Path snapshotFile) throws IOException {
+        synchronized (checkpointLock) {
+            LedgerSnapshot.take(ledger, snapshotFile, log);
+        }
+    }
+
+    public void deposit(int accountId, long amount) {
+        log.awaitDurable(ledger.deposit(accountId, amount, log));
+    }
+
+    // Returns false if the account does not hold enough funds
+    public boolean withdraw(int accountId, long amount) {
+        long sequence = ledger.withdraw(accountId, amount, log);
+        if (sequence == AccountLedger.FAILED) {
+            return false;
+        }
+        log.awaitDurable(sequence);
+        return true;
+    }
+
+    // Returns false if the source account does not hold enough funds
+    public boolean transfer(int fromId, int toId, long amount) {
+        long sequence = ledger.transfer(fromId, toId, amount, log);
+        if (sequence == AccountLedger.FAILED) {
+            return false;
+        }
+        log.awaitDurable(sequence);
+        return true;
+    }
+
+    public long getBalance(int accountId) {
+        return ledger.getBalance(accountId);
+    }
+
+    public int size() {
+        return ledger.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+}
@@ -0,0 +1,251 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous Event Log (striped preallocated ring buffers + background writer):
+ *
+ * Purpose:
+ * Replaces System.out.println calls inside critical sections. Recording an event only copies a few numbers
+ * into preallocated arrays; formatting and console I/O happen later on a single background writer thread.
+ *
+ * Notes:
+ * 1. Striped rings:
+ *    - The log is split into stripes, one ring buffer each, and a thread always records into the stripe picked by its
+ *      thread id. Producers on different stripes never touch the same head counter, so the log adds no global
+ *      contention point to the account hot paths; only threads that share a stripe CAS the same head.
+ *    - Events are stored in parallel preallocated arrays (thread name, op type, account id, counterpart id, amount),
+ *      so recording an event never allocates; the thread name is the String the Thread already holds.
+ *    - A producer claims a slot by CAS-incrementing its stripe's head, fills the slot, and then publishes it by writing
+ *      the slot's sequence number (a release write, lazySet). The writer only reads a slot after seeing that number.
+ *    - The events of one thread are written in the order it recorded them; events of threads on different stripes
+ *      may be interleaved differently than they happened.
+ *
+ * 2. Full ring (FullPolicy):
+ *    - DROP (the default): the event is dropped and counted instead. getDropped() reports the total, and the writer
+ *      prints a line saying how many events are missing at the point where they were lost. BankAccount records while
+ *      holding its locks, so a full ring must never make the lock hold time depend on console I/O.
+ *    - BLOCK (opt-in, for callers that record outside any lock and need every event): the producer waits until the
+ *      writer has freed a slot. The writer never takes an account lock, so this cannot deadlock, it only slows the caller.
+ *
+ * 3. Writer thread:
+ *    - A daemon thread drains all published events, formats them into one reused StringBuilder,
+ *      and writes the whole batch with a single print, to whatever System.out is at that moment.
+ *    - When every ring is empty it parks for a millisecond instead of spinning.
+ *
+ * 4. flush() waits until everything recorded so far has been written (useful before printing final results).
+ *
+ * 5. setEnabled(false) turns record() into a single volatile read, e.g. for benchmarks that compare locking strategies
+ *    and should not measure the log at all.
+ *
+ * 6. Thread.threadId() needs Java 19 or later; the build targets Java 21.
+ */
+final class EventLog {
+    static final int DEPOSIT = 0;
+    static final int WITHDRAW = 1;
+    static final int INSUFFICIENT_FUNDS = 2;
+    static final int GLOBAL_DEPOSIT = 3;
+    static final int TRANSFER = 4;
+    static final int TRANSFER_FAILED = 5;
+
+    private static final String[] OP_NAMES = {
+            "deposit", "withdraw", "insufficient-funds", "global-deposit", "transfer", "transfer-failed"
+    };
+
+    private static final int MAX_BATCH = 4096; // Events formatted per print call
+    private static final int MIN_STRIPE_CAPACITY = 1024;
+
+    // What record() does when the caller's ring is full
+    enum FullPolicy { BLOCK, DROP }
+
+    // Shared log used by BankAccount
+    static final EventLog DEFAULT = new EventLog(1 << 16);
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final LongAdder dropped = new LongAdder();
+    private volatile FullPolicy fullPolicy = FullPolicy.DROP;
+    private volatile boolean enabled = true;
+    private final Thread writer;
+
+    // One ring per stripe, each with its own head counter
+    private static final class Stripe {
+        final int mask;
+        final String[] threadNames;
+        final int[] ops;
+        final int[] accountIds;
+        final int[] counterpartIds;
+        final long[] amounts;
+        final AtomicLongArray published; // published[i] == sequence + 1 once the slot for sequence is filled
+        final AtomicLong head = new AtomicLong(); // Next sequence to claim (producers of this stripe)
+        volatile long tail; // Next sequence to format (writer thread only)
+        volatile long written; // Every sequence below this has been printed (writer thread only)
+
+        Stripe(int capacity) {
+            this.mask = capacity - 1;
+            this.threadNames = new String[capacity];
+            this.ops = new int[capacity];
+            this.accountIds = new int[capacity];
+            this.counterpartIds = new int[capacity];
+            this.amounts = new long[capacity];
+            this.published = new AtomicLongArray(capacity);
+        }
+    }
+
+    // Capacity is the total over all stripes; about one stripe per core, each holding at least MIN_STRIPE_CAPACITY
+    EventLog(int capacity) {
+        this(capacity, Math.max(1, Math.min(Integer.highestOneBit(capacity / MIN_STRIPE_CAPACITY),
+                Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1))));
+    }
+
+    EventLog(int capacity, int stripeCount) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        if (stripeCount <= 0 || Integer.bitCount(stripeCount) != 1 || stripeCount > capacity) {
+            throw new IllegalArgumentException("Stripe count must be a power of two up to the capacity: " + stripeCount);
+        }
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(capacity / stripeCount);
+        }
+        this.stripeMask = stripeCount - 1;
+
+        this.writer = new Thread(this::drainForever, "EventLog-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Records an event without allocating. Never blocks with FullPolicy.DROP; with BLOCK it only waits
+     * while the caller's ring is full.
+     *
+     * @param op           one of the op constants (DEPOSIT, WITHDRAW, ...)
+     * @param accountId    the account the operation was called on
+     * @param counterpartId the other account of a transfer, or -1
+     * @param amount       the amount of the operation
+     */
+    void record(int op, int accountId, int counterpartId, long amount) {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = Thread.currentThread();
+        Stripe stripe = stripes[(int) thread.threadId() & stripeMask];
+        long sequence;
+        int attempt = 0;
+        while (true) {
+            sequence = stripe.head.get();
+            if (sequence - stripe.tail > stripe.mask) {
+                if (fullPolicy == FullPolicy.DROP) {
+                    dropped.increment();
+                    return;
+                }
+                waitForWriter(attempt++); // BLOCK: the writer frees the slot
+            } else if (stripe.head.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+
+        int slot = (int) sequence & stripe.mask;
+        stripe.threadNames[slot] = thread.getName();
+        stripe.ops[slot] = op;
+        stripe.accountIds[slot] = accountId;
+        stripe.counterpartIds[slot] = counterpartId;
+        stripe.amounts[slot] = amount;
+        stripe.published.lazySet(slot, sequence + 1); // Release: the fields above are visible before the slot is
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    void setFullPolicy(FullPolicy fullPolicy) {
+        this.fullPolicy = fullPolicy;
+    }
+
+    FullPolicy getFullPolicy() {
+        return fullPolicy;
+    }
+
+    // Events lost so far because a ring was full under FullPolicy.DROP
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    // Waits until every event recorded before this call has been written
+    void flush() {
+        long[] targets = new long[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            targets[i] = stripes[i].head.get();
+        }
+        for (int i = 0; i < stripes.length; i++) {
+            while (stripes[i].written < targets[i]) {
+                LockSupport.unpark(writer);
+                Thread.yield();
+            }
+        }
+    }
+
+    private void waitForWriter(int attempt) {
+        LockSupport.unpark(writer);
+        if (attempt < 100) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(10_000);
+        }
+    }
+
+    private void drainForever() {
+        StringBuilder batch = new StringBuilder(1 << 16);
+        long droppedReported = 0;
+        while (true) {
+            int count = 0;
+            for (Stripe stripe : stripes) {
+                count += drain(stripe, batch, MAX_BATCH);
+            }
+            long droppedNow = dropped.sum();
+            if (droppedNow != droppedReported) {
+                batch.append("EventLog: ").append(droppedNow - droppedReported).append(" event(s) dropped, ring full\n");
+                droppedReported = droppedNow;
+                count++;
+            }
+
+            if (count > 0) {
+                PrintStream out = System.out;
+                out.print(batch);
+                out.flush();
+                batch.setLength(0);
+                for (Stripe stripe : stripes) {
+                    stripe.written = stripe.tail;
+                }
+            } else {
+                LockSupport.parkNanos(1_000_000);
+            }
+        }
+    }
+
+    // Formats up to limit published events of one stripe; returns how many
+    private static int drain(Stripe stripe, StringBuilder batch, int limit) {
+        long next = stripe.tail;
+        int count = 0;
+        while (count < limit && stripe.published.get((int) next & stripe.mask) == next + 1) {
+            int slot = (int) next & stripe.mask;
+            batch.append(stripe.threadNames[slot])
+                    .append(' ').append(OP_NAMES[stripe.ops[slot]])
+                    .append(" account=").append(stripe.accountIds[slot]);
+            if (stripe.counterpartIds[slot] >= 0) {
+                batch.append(" to=").append(stripe.counterpartIds[slot]);
+            }
+            batch.append(" amount=").append(stripe.amounts[slot]).append('\n');
+            stripe.threadNames[slot] = null; // Do not keep finished threads' names reachable
+            next++;
+            count++;
+            stripe.tail = next; // Frees the slot for producers
+        }
+        return count;
+    }
+}
@@ -1,5 +1,10 @@
 package OOPS.Multithreading.Synchronization;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Practical Example Demonstrating Synchronization Methods in Java:
  *
@@ -26,70 +31,163 @@ package OOPS.Multithreading.Synchronization;
  *    - While this lock is held, no other thread can enter any synchronized static method or synchronized block that locks on BankAccount.class.
  */
 
-class BankAccount {
-    private int balance;
-    private final Object lock = new Object(); // Private lock object for this instance
+class BankAccount implements Account<BankAccount> {
+    private static final LongAdder GLOBAL_DEPOSITED = new LongAdder(); // Striped counter, no single contended field
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+    static final int MAX_TRANSFER_LEGS = 64; // transferAll nests one monitor (and a few stack frames) per account
+
+    private final int id = NEXT_ID.getAndIncrement(); // Unique account id, used in log events
+    private volatile int balance; // Written under the instance monitor, read without any lock by getBalance
+    final Object lock = new Object(); // Lock object for this instance (package-private so InstrumentedBankAccount can time it)
 
     public BankAccount(int initialBalance) {
         this.balance = initialBalance;
     }
 
     // Synchronized method to deposit money into the account
+    @Override
     public synchronized void deposit(int amount) {
-        System.out.println(Thread.currentThread().getName() + " is depositing " + amount);
+        EventLog.DEFAULT.record(EventLog.DEPOSIT, id, -1, amount);
         balance += amount;
     }
 
     // Synchronized method to withdraw money from the account
+    @Override
     public synchronized void withdraw(int amount) {
-        System.out.println(Thread.currentThread().getName() + " is withdrawing " + amount);
+        EventLog.DEFAULT.record(EventLog.WITHDRAW, id, -1, amount);
         if (balance >= amount) {
             balance -= amount;
         } else {
-            System.out.println("Insufficient funds.");
+            EventLog.DEFAULT.record(EventLog.INSUFFICIENT_FUNDS, id, -1, amount);
         }
     }
 
-    // Static synchronized method to demonstrate class-level synchronization
-    public synchronized static void globalDeposit(BankAccount account, int amount) {
-        System.out.println(Thread.currentThread().getName() + " is globally depositing " + amount);
+    // Global deposit without a class-level lock: the account's own monitor (taken by deposit) orders deposits per account,
+    // and the global total is a LongAdder, so deposits on different accounts never serialize on BankAccount.class
+    public static void globalDeposit(BankAccount account, int amount) {
+        EventLog.DEFAULT.record(EventLog.GLOBAL_DEPOSIT, account.id, -1, amount);
         account.deposit(amount);
+        GLOBAL_DEPOSITED.add(amount);
+    }
+
+    // Total amount deposited through globalDeposit across all accounts
+    public static long getGlobalDepositedTotal() {
+        return GLOBAL_DEPOSITED.sum();
     }
 
     // Method using synchronized block to perform transfer between accounts
+    @Override
     public void transfer(BankAccount destination, int amount) {
         // Lock both source and destination accounts to avoid deadlock
         BankAccount first = this;
         BankAccount second = destination;
 
         // Ensure a consistent locking order to avoid deadlock
-        if (System.identityHashCode(first) > System.identityHashCode(second)) {
+        if (!locksBefore(first, second)) {
             first = destination;
             second = this;
         }
 
         synchronized (first.lock) {
             synchronized (second.lock) {
-                System.out.println(Thread.currentThread().getName() + " is transferring " + amount + " to " + destination);
+                EventLog.DEFAULT.record(EventLog.TRANSFER, id, destination.id, amount);
                 if (balance >= amount) {
                     this.withdraw(amount);
                     destination.deposit(amount);
 
                 } else {
-                    System.out.println("Transfer failed: Insufficient funds.");
+                    EventLog.DEFAULT.record(EventLog.TRANSFER_FAILED, id, destination.id, amount);
                 }
             }
         }
     }
 
-    // Getter method for balance
+    /*
+     * Atomic multi-leg transfer (fan-out payout: this -> {destinations[0], destinations[1], ...}).
+     * Either every leg is applied or none is (if the total exceeds the balance); negative amounts are rejected.
+     * It takes the instance monitors of the involved accounts, the same locks deposit() and withdraw() use,
+     * so no single-account operation can change a balance between the funds check and the debit. The monitors are
+     * taken in ascending account id order (one per account), so multi-leg transfers can never deadlock each other,
+     * and the balances are updated directly under them instead of through withdraw()/deposit().
+     * Totals and the lock order are computed before any lock is taken, and the events are recorded after the
+     * monitors are released, to keep the hold time short.
+     * Monitors can only be nested, not taken in a loop, so the number of legs is capped at MAX_TRANSFER_LEGS;
+     * larger payouts have to be split into several calls (each of them atomic on its own).
+     */
+    public void transferAll(BankAccount[] destinations, int[] amounts) {
+        if (destinations.length != amounts.length) {
+            throw new IllegalArgumentException("Every destination needs exactly one amount");
+        }
+        if (destinations.length > MAX_TRANSFER_LEGS) {
+            throw new IllegalArgumentException("At most " + MAX_TRANSFER_LEGS + " legs per transfer: " + destinations.length);
+        }
+        long total = 0;
+        for (int amount : amounts) {
+            if (amount < 0) {
+                throw new IllegalArgumentException("Negative transfer amount: " + amount);
+            }
+            total += amount;
+        }
+
+        BankAccount[] involved = new BankAccount[destinations.length + 1];
+        involved[0] = this;
+        System.arraycopy(destinations, 0, involved, 1, destinations.length);
+        Arrays.sort(involved, Comparator.comparingInt(BankAccount::getId));
+
+        long finalTotal = total;
+        boolean[] applied = new boolean[1];
+        withMonitors(involved, 0, () -> {
+            if (balance >= finalTotal) {
+                balance -= (int) finalTotal; // Fits: it is at most the current balance
+                for (int i = 0; i < destinations.length; i++) {
+                    destinations[i].balance += amounts[i];
+                }
+                applied[0] = true;
+            }
+        });
+
+        if (!applied[0]) {
+            EventLog.DEFAULT.record(EventLog.TRANSFER_FAILED, id, -1, finalTotal);
+            return;
+        }
+        for (int i = 0; i < destinations.length; i++) {
+            EventLog.DEFAULT.record(EventLog.TRANSFER, id, destinations[i].id, amounts[i]);
+        }
+    }
+
+    // Takes the monitors of the sorted accounts one by one (skipping repeats), then runs the action
+    private static void withMonitors(BankAccount[] sorted, int index, Runnable action) {
+        if (index == sorted.length) {
+            action.run();
+        } else if (index > 0 && sorted[index] == sorted[index - 1]) {
+            withMonitors(sorted, index + 1, action); // Same account listed twice, its monitor is already held
+        } else {
+            synchronized (sorted[index]) {
+                withMonitors(sorted, index + 1, action);
+            }
+        }
+    }
+
+    // Lock ordering used by transfer and transferAll (ascending id): a's lock must be taken before b's lock.
+    // Account ids are unique, so unlike System.identityHashCode this order never has ties.
+    static boolean locksBefore(BankAccount a, BankAccount b) {
+        return a.id <= b.id;
+    }
+
+    // Getter method for balance: a single volatile read, always sees the latest completed deposit/withdraw,
+    // and never contends with writers (see StampedBankAccount for state that spans more than one field)
+    @Override
     public int getBalance() {
         return balance;
     }
 
+    public int getId() {
+        return id;
+    }
+
     @Override
     public String toString() {
-        return "BankAccount@" + Integer.toHexString(hashCode());
+        return "BankAccount-" + id;
     }
 }
 
@@ -104,11 +202,11 @@ public class Example {
          * ensuring that no other thread can concurrently execute synchronized methods like withdraw or deposit
          * on the same account. This prevents simultaneous withdrawals or deposits that could lead to inconsistencies.
          *
-         * globalDeposit() : (Static synchronized method)
-         * Applies a lock at the level of static synchronized methods of the BankAccount class,
-         * ensuring that no other thread can execute globalDeposit or globalWithdraw on any instance of
-         * BankAccount concurrently. This prevents simultaneous global deposits or withdrawals across accounts,
-         * maintaining consistent and accurate financial operations.
+         * globalDeposit() : (Static method without a class-level lock)
+         * Declaring it static synchronized would lock BankAccount.class, so every global deposit on every account
+         * in the JVM would run one at a time. Instead it relies on the instance lock taken by deposit(), which
+         * already orders the deposits of one account, and keeps the global total in a LongAdder.
+         * Global deposits on different accounts therefore run in parallel.
          *
          * transfer() : (Synchronized block on class.object)
          * Uses synchronized (BankAccount.class) to apply a lock at the class level,
@@ -120,6 +218,12 @@ public class Example {
          * it becomes less efficient as the number of instances increases. This is because all instances would contend for
          * the same class-level lock, potentially leading to increased contention and decreased concurrency.
          *
+         * transferAll() : (Multi-leg transfer, monitors taken in account id order)
+         * Moves money from one account to several others atomically. The monitors of all involved accounts (the locks
+         * deposit and withdraw synchronize on) are acquired in ascending account id order, so the funds check and the
+         * balance updates cannot interleave with any other operation on those accounts, and no two multi-leg transfers
+         * can ever wait on each other in a cycle (no deadlock), no matter how many accounts each one touches.
+         *
          * Private Lock Object:
          * In scenarios involving more than two instances of BankAccount, using a private lock object for each instance
          * allows for finer-grained control over synchronization. Each instance manages its own lock independently,
@@ -208,6 +312,13 @@ public class Example {
             }
         }, "Thread9");
 
+        // Example of an atomic multi-leg transfer (fan-out payout)
+        Thread thread10 = new Thread(() -> {
+            for (int i = 0; i < 5; i++) {
+                account3.transferAll(new BankAccount[]{account4, account5}, new int[]{2, 3}); // 2 to account4, 3 to account5
+            }
+        }, "Thread10");
+
         // Start all threads
         thread1.start();
         thread2.start();
@@ -218,6 +329,7 @@ public class Example {
         thread7.start();
         thread8.start();
 //        thread9.start();
+        thread10.start();
 
         try {
             // Wait for all threads to complete
@@ -230,10 +342,14 @@ public class Example {
             thread7.join();
             thread8.join();
 //            thread9.join();
+            thread10.join();
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
 
+        // Make sure all logged operations are printed before the results
+        EventLog.DEFAULT.flush();
+
         // Output final balances after operations
         System.out.println("Final Balance for account1: " + account1.getBalance());
         System.out.println("Final Balance for account2: " + account2.getBalance());
@@ -0,0 +1,96 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Benchmark: Scaling of BankAccount.globalDeposit from 1 to N Cores
+ *
+ * Purpose:
+ * Every thread keeps global-depositing into its own account, so the only shared state is whatever globalDeposit shares.
+ * The same run is repeated with an extra synchronized (BankAccount.class) around the call, which is exactly what the
+ * old "static synchronized" globalDeposit did, to show the difference.
+ *
+ * Usage:
+ *   java OOPS.Multithreading.Synchronization.GlobalDepositBenchmark [maxThreads] [secondsPerRun]
+ *
+ * Notes:
+ * - With the class-level lock, throughput stays flat (or drops) as threads are added, since only one thread runs at a time.
+ * - Without it, throughput should grow with the number of threads until the cores run out.
+ * - Every deposit records an EventLog event; stdout is silenced during the runs so the background writer stays cheap.
+ *   The event log is striped by thread, so it adds no shared counter of its own; its default FullPolicy.DROP
+ *   means a writer that falls behind costs lost events instead of throughput.
+ */
+public class GlobalDepositBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+
+        PrintStream console = System.out;
+        console.printf("%8s %22s %22s%n", "threads", "class lock (ops/sec)", "no class lock (ops/sec)");
+        for (int threads : threadCounts(maxThreads)) {
+            BankAccount[] accounts = new BankAccount[threads];
+            for (int i = 0; i < threads; i++) {
+                accounts[i] = new BankAccount(0);
+            }
+
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            long classLocked = run(accounts, seconds, account -> {
+                synchronized (BankAccount.class) {
+                    BankAccount.globalDeposit(account, 1);
+                }
+            });
+            long unlocked = run(accounts, seconds, account -> BankAccount.globalDeposit(account, 1));
+            EventLog.DEFAULT.flush(); // Drain pending events into the silenced stream
+            System.setOut(console);
+
+            console.printf("%8d %22d %22d%n", threads, classLocked / seconds, unlocked / seconds);
+        }
+        console.println("Total globally deposited: " + BankAccount.getGlobalDepositedTotal());
+    }
+
+    // 1, 2, 4, ... while below maxThreads, then maxThreads itself, so the last run always uses exactly maxThreads
+    static int[] threadCounts(int maxThreads) {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException("maxThreads must be at least 1: " + maxThreads);
+        }
+        int[] counts = new int[32];
+        int size = 0;
+        for (int threads = 1; threads < maxThreads; threads = threads <= maxThreads / 2 ? threads * 2 : maxThreads) {
+            counts[size++] = threads;
+        }
+        counts[size++] = maxThreads;
+        return Arrays.copyOf(counts, size);
+    }
+
+    interface AccountOperation {
+        void apply(BankAccount account);
+    }
+
+    // One thread per account, each applying the operation to its own account until the time is up
+    private static long run(BankAccount[] accounts, int seconds, AccountOperation operation) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long[] counts = new long[accounts.length];
+        Thread[] workers = new Thread[accounts.length];
+        for (int t = 0; t < accounts.length; t++) {
+            final int index = t;
+            workers[t] = new Thread(() -> {
+                long count = 0;
+                while (System.nanoTime() < deadline) {
+                    operation.apply(accounts[index]);
+                    count++;
+                }
+                counts[index] = count;
+            }, "Depositor" + t);
+            workers[t].start();
+        }
+
+        long total = 0;
+        for (int t = 0; t < accounts.length; t++) {
+            workers[t].join();
+            total += counts[t];
+        }
+        return total;
+    }
+}
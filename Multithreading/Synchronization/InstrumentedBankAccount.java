@@ -0,0 +1,144 @@
+package OOPS.Multithreading.Synchronization;
+
+import javax.management.JMException;
+
+/**
+ * Instrumented BankAccount (opt-in):
+ *
+ * Purpose:
+ * Behaves exactly like BankAccount, but measures the time spent waiting for and holding the account's locks
+ * (the instance monitor for deposit/withdraw, both lock objects for transfer) and records it in ContentionStats.
+ *
+ * Notes:
+ * - Only sampled calls are timed. They take the same lock the plain BankAccount method takes (in the same order),
+ *   note the time once it is acquired, then call the original method, which re-enters the lock it already holds.
+ * - Calls that are not sampled go straight to BankAccount, so the overhead of the instrumentation is one random number.
+ * - A sampled transfer times both locks separately and records each wait with the account that owns the lock,
+ *   so a hot destination shows up in its own statistics (sampled at the source account's rate).
+ * - BankAccount.transfer moves the money through withdraw() and deposit(), which this class overrides. Inside a sampled
+ *   transfer those nested calls are never sampled: they only re-enter monitors the transfer already accounts for,
+ *   and their near-zero waits would add extra samples per transfer and pull p50/p99 down.
+ * - Plain BankAccount objects are unaffected; use this class only for accounts that should be observed.
+ */
+class InstrumentedBankAccount extends BankAccount {
+    private final ContentionStats stats;
+
+    // Set while this thread runs a sampled transfer; only read once a call has already been picked for sampling
+    private static final ThreadLocal<Boolean> IN_SAMPLED_TRANSFER = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    public InstrumentedBankAccount(int initialBalance, ContentionStats stats) {
+        super(initialBalance);
+        this.stats = stats;
+    }
+
+    public ContentionStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void deposit(int amount) {
+        if (!sample()) {
+            super.deposit(amount);
+            return;
+        }
+        long start = System.nanoTime();
+        synchronized (this) {
+            long acquired = System.nanoTime();
+            super.deposit(amount);
+            stats.record(acquired - start, System.nanoTime() - acquired);
+        }
+    }
+
+    @Override
+    public void withdraw(int amount) {
+        if (!sample()) {
+            super.withdraw(amount);
+            return;
+        }
+        long start = System.nanoTime();
+        synchronized (this) {
+            long acquired = System.nanoTime();
+            super.withdraw(amount);
+            stats.record(acquired - start, System.nanoTime() - acquired);
+        }
+    }
+
+    @Override
+    public void transfer(BankAccount destination, int amount) {
+        if (!sample()) {
+            super.transfer(destination, amount);
+            return;
+        }
+
+        // Same lock order as BankAccount.transfer, so the instrumented path cannot introduce a deadlock
+        BankAccount first = this;
+        BankAccount second = destination;
+        if (!locksBefore(first, second)) {
+            first = destination;
+            second = this;
+        }
+
+        // Each wait is recorded against the account whose lock was waited for
+        long start = System.nanoTime();
+        synchronized (first.lock) {
+            long firstAcquired = System.nanoTime();
+            synchronized (second.lock) {
+                long secondAcquired = System.nanoTime();
+                IN_SAMPLED_TRANSFER.set(Boolean.TRUE);
+                try {
+                    super.transfer(destination, amount);
+                } finally {
+                    IN_SAMPLED_TRANSFER.set(Boolean.FALSE);
+                }
+                long released = System.nanoTime();
+                record(first, firstAcquired - start, released - firstAcquired);
+                if (second != first) {
+                    record(second, secondAcquired - firstAcquired, released - secondAcquired);
+                }
+            }
+        }
+    }
+
+    private boolean sample() {
+        return stats.shouldSample() && !IN_SAMPLED_TRANSFER.get();
+    }
+
+    // Plain BankAccounts taking part in a transfer have no statistics to record into
+    private static void record(BankAccount account, long waitNanos, long holdNanos) {
+        if (account instanceof InstrumentedBankAccount) {
+            ((InstrumentedBankAccount) account).stats.record(waitNanos, holdNanos);
+        }
+    }
+}
+
+// Runs a contended workload on two instrumented accounts and prints what the MBeans report
+class InstrumentedExample {
+    public static void main(String[] args) throws InterruptedException, JMException {
+        InstrumentedBankAccount hot = new InstrumentedBankAccount(100_000, new ContentionStats(10));
+        InstrumentedBankAccount cold = new InstrumentedBankAccount(100_000, new ContentionStats(10));
+        hot.getStats().register("hot");
+        cold.getStats().register("cold");
+
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    hot.deposit(1);
+                    hot.transfer(cold, 1);
+                }
+            }, "Thread" + t);
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (InstrumentedBankAccount account : new InstrumentedBankAccount[]{hot, cold}) {
+            ContentionStats stats = account.getStats();
+            System.out.printf("%s: sampled=%d contended=%d wait p50/p99/max=%d/%d/%d ns hold p99=%d ns%n",
+                    account, stats.getSampledAcquisitions(), stats.getContendedAcquisitions(),
+                    stats.getAcquireWaitP50Nanos(), stats.getAcquireWaitP99Nanos(), stats.getAcquireWaitMaxNanos(),
+                    stats.getHoldTimeP99Nanos());
+        }
+    }
+}
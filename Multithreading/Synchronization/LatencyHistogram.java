@@ -0,0 +1,106 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Allocation-Free Concurrent Latency Histogram:
+ *
+ * Purpose:
+ * Records latencies (in nanoseconds) from many threads at once and answers percentile queries (p50, p99, p99.9 ...).
+ *
+ * Notes:
+ * 1. Bucket layout (same idea as HdrHistogram, at a coarser precision):
+ *    - Values 0..15 each get their own bucket.
+ *    - Larger values are grouped by their highest set bit (power of two), and every power of two is split into
+ *      8 equal sub-buckets, so a reported value is never more than 12.5% above the recorded one.
+ *    - 488 buckets (16 exact ones plus 8 for each power of two from 2^4 to 2^62) cover the whole positive long range.
+ *
+ * 2. Recording is one AtomicLongArray increment (plus a rarely failing CAS for the maximum),
+ *    so it never allocates and never blocks, which makes it safe to call inside hot paths.
+ *
+ * 3. Reads are not a consistent snapshot: values recorded while a percentile is computed may or may not be counted.
+ */
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS; // Values below this get exact buckets
+    private static final int BUCKETS = LINEAR_LIMIT + (63 - 4) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0; // nanoTime differences can be slightly negative across cores
+        }
+        counts.incrementAndGet(indexOf(nanos));
+        long currentMax;
+        while (nanos > (currentMax = max.get())) {
+            if (max.compareAndSet(currentMax, nanos)) {
+                break;
+            }
+        }
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the (upper bound of the) value below which the given fraction of recordings fall.
+     *
+     * @param fraction between 0.0 and 1.0, e.g. 0.99 for p99
+     * @return the latency in nanoseconds, or 0 if nothing was recorded
+     */
+    public long percentile(double fraction) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        max.set(0);
+    }
+
+    private static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value); // >= 4
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - 4) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int exponent = (index - LINEAR_LIMIT) / SUB_BUCKETS + 4;
+        int subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lowest = (SUB_BUCKETS + subBucket) * width;
+        return lowest + width - 1;
+    }
+}
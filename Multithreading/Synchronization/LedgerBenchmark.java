@@ -0,0 +1,102 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmark: Object-per-Account Model vs Off-Heap AccountLedger
+ *
+ * Purpose:
+ * Compares the heap footprint and the transfer throughput of N BankAccount objects against one AccountLedger of N slots.
+ *
+ * Usage:
+ *   java OOPS.Multithreading.Synchronization.LedgerBenchmark [accounts] [threads] [seconds]
+ *
+ * Notes:
+ * - Heap footprint is measured as used heap after a System.gc(), so it is an estimate, not an exact object size.
+ * - The off-heap slots do not show up in the heap numbers at all, they are reported separately.
+ * - BankAccount logs every operation through EventLog; stdout is silenced while it runs so the numbers
+ *   measure locking and memory access instead of console I/O.
+ */
+public class LedgerBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        // Footprint: object-per-account
+        long before = usedHeap();
+        BankAccount[] objects = new BankAccount[accounts];
+        for (int i = 0; i < accounts; i++) {
+            objects[i] = new BankAccount(1000);
+        }
+        long objectHeap = usedHeap() - before;
+
+        // Footprint: off-heap ledger
+        before = usedHeap();
+        AccountLedger ledger = new AccountLedger(accounts);
+        for (int i = 0; i < accounts; i++) {
+            ledger.deposit(i, 1000);
+        }
+        long ledgerHeap = usedHeap() - before;
+
+        System.out.printf("Accounts: %,d, threads: %d, duration: %ds%n", accounts, threads, seconds);
+        System.out.printf("Heap used by BankAccount objects: %,d bytes (%.1f bytes/account)%n",
+                objectHeap, (double) objectHeap / accounts);
+        System.out.printf("Heap used by AccountLedger:       %,d bytes, off-heap slots: %,d bytes%n",
+                ledgerHeap, (long) accounts * Long.BYTES);
+
+        // Throughput: random transfers between random accounts
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long objectOps = run(threads, seconds, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            objects[random.nextInt(accounts)].transfer(objects[random.nextInt(accounts)], 1);
+        });
+        EventLog.DEFAULT.flush(); // Drain pending events into the silenced stream
+        System.setOut(console);
+
+        long ledgerOps = run(threads, seconds, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            ledger.transfer(random.nextInt(accounts), random.nextInt(accounts), 1);
+        });
+
+        System.out.printf("BankAccount transfers:   %,d ops/sec%n", objectOps / seconds);
+        System.out.printf("AccountLedger transfers: %,d ops/sec%n", ledgerOps / seconds);
+    }
+
+    // Runs the operation on all threads for the given duration and returns the total number of operations
+    static long run(int threads, int seconds, Runnable operation) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long[] counts = new long[threads];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            workers[t] = new Thread(() -> {
+                long count = 0;
+                while (System.nanoTime() < deadline) {
+                    operation.run();
+                    count++;
+                }
+                counts[index] = count;
+            }, "Worker" + t);
+            workers[t].start();
+        }
+
+        long total = 0;
+        for (int t = 0; t < threads; t++) {
+            workers[t].join();
+            total += counts[t];
+        }
+        return total;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,292 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Memory-Mapped Ledger Snapshots (checkpoints):
+ *
+ * Purpose:
+ * Writes every balance of an AccountLedger into a fixed-layout memory-mapped file, so a restart can map the file
+ * and copy the balances back in one bulk copy, then replay only the log written after the snapshot.
+ *
+ * File layout (native byte order):
+ *     offset  0: long  MAGIC
+ *     offset  8: int   VERSION
+ *     offset 12: int   account count (n)
+ *     offset 16: long  log position at the moment of the snapshot (replay resumes here)
+ *     offset 24: long  CRC32C checksum of the balances
+ *     offset 32: long  creation time (epoch millis)
+ *     offset 64: long[n] balances, account id i at offset 64 + 8 * i
+ *
+ * Notes:
+ * 1. Consistent cut without stopping writers:
+ *    - All stripe locks are held only for an instant, to read the log position and switch the ledger into snapshot mode.
+ *    - Afterwards, a writer about to change a slot that was not captured yet first writes the old value into the
+ *      snapshot (copy-on-write), while the snapshot thread copies the slots nobody touched.
+ *    - Every slot therefore ends up with its value as of the cut, which matches the recorded log position exactly.
+ *
+ * 2. Crash safety:
+ *    - The snapshot is written to a temporary file, forced to disk, and then atomically renamed over the old one,
+ *      so a crash never leaves a half-written snapshot under the real name. The header checksum catches anything else.
+ *    - The log position recorded at the cut may still be in an unflushed log batch. The rename waits until the log
+ *      is durable up to that position, so a published snapshot never reflects changes the log could lose in a crash.
+ *
+ * 3. One snapshot at a time:
+ *    - A ledger supports one active cut, and all snapshots of a file share its temporary file, so callers must not
+ *      take snapshots concurrently (DurableLedger.checkpoint serializes them); beginCut rejects a second cut.
+ *
+ * 4. The byte order is native so the balances can be copied into the ledger without any conversion;
+ *    a snapshot written on a machine with a different byte order fails the MAGIC check.
+ */
+class LedgerSnapshot {
+    private static final long MAGIC = 0x4C454447534E4150L; // "LEDGSNAP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+
+    private final int accountCount;
+    private final long logPosition;
+    private final ByteBuffer balances;
+
+    private LedgerSnapshot(int accountCount, long logPosition, ByteBuffer balances) {
+        this.accountCount = accountCount;
+        this.logPosition = logPosition;
+        this.balances = balances;
+    }
+
+    /**
+     * Takes a consistent snapshot of the ledger while writers keep running.
+     *
+     * @param log the ledger's write-ahead log; its end position is read at the moment of the cut,
+     *            while no ledger mutation is in progress, and must be durable before the snapshot is published
+     */
+    static LedgerSnapshot take(AccountLedger ledger, Path file, WriteAheadLog log) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            long position = write(ledger, temporary, log);
+            log.awaitDurablePosition(position); // Never publish a snapshot that is ahead of the durable log
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        return open(file);
+    }
+
+    // Writes the snapshot into the given file and returns the log position of its cut
+    private static long write(AccountLedger ledger, Path temporary, WriteAheadLog log) throws IOException {
+        int count = ledger.size();
+        long bodySize = (long) count * Long.BYTES;
+
+        long position;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + bodySize);
+            map.order(ByteOrder.nativeOrder());
+            ByteBuffer body = map.slice(HEADER_SIZE, (int) bodySize).order(ByteOrder.nativeOrder());
+
+            Cut cut = new Cut(body, count);
+            long[] positionAtCut = new long[1];
+            ledger.beginCut(cut, () -> positionAtCut[0] = log.endPosition());
+            try {
+                ledger.copyUnchangedInto(cut);
+            } finally {
+                ledger.endCut();
+            }
+            position = positionAtCut[0];
+
+            CRC32C checksum = new CRC32C();
+            checksum.update(body.duplicate());
+            map.putLong(0, MAGIC)
+                    .putInt(8, VERSION)
+                    .putInt(12, count)
+                    .putLong(16, position)
+                    .putLong(24, checksum.getValue())
+                    .putLong(32, System.currentTimeMillis());
+            map.force();
+        }
+        return position;
+    }
+
+    // Maps an existing snapshot and validates its header and checksum
+    static LedgerSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException("Snapshot too small: " + file);
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize); // Stays valid after close
+            map.order(ByteOrder.nativeOrder());
+            if (map.getLong(0) != MAGIC) {
+                throw new IOException("Not a ledger snapshot (or written with another byte order): " + file);
+            }
+            if (map.getInt(8) != VERSION) {
+                throw new IOException("Unsupported snapshot version " + map.getInt(8) + ": " + file);
+            }
+            int count = map.getInt(12);
+            if (count < 0 || fileSize != HEADER_SIZE + (long) count * Long.BYTES) {
+                throw new IOException("Snapshot size does not match its account count: " + file);
+            }
+            ByteBuffer body = map.slice(HEADER_SIZE, count * Long.BYTES).order(ByteOrder.nativeOrder());
+            CRC32C checksum = new CRC32C();
+            checksum.update(body.duplicate());
+            if (checksum.getValue() != map.getLong(24)) {
+                throw new IOException("Snapshot checksum mismatch: " + file);
+            }
+            return new LedgerSnapshot(count, map.getLong(16), body);
+        }
+    }
+
+    int getAccountCount() {
+        return accountCount;
+    }
+
+    // Position in the write-ahead log from which replay has to resume after restoring this snapshot
+    long getLogPosition() {
+        return logPosition;
+    }
+
+    // Copies the balances into the ledger in one bulk copy
+    void restoreInto(AccountLedger ledger) {
+        if (ledger.size() != accountCount) {
+            throw new IllegalArgumentException("Snapshot has " + accountCount + " accounts, ledger has " + ledger.size());
+        }
+        ledger.load(balances);
+    }
+
+    /*
+     * The snapshot being written. Each slot is written exactly once: either with its old value by the first writer
+     * that changes it after the cut, or with its current value by copyUnchangedInto if nobody changed it.
+     * Both happen under the account's stripe lock, which also guards the saved flags.
+     */
+    static final class Cut {
+        private final ByteBuffer body;
+        private final byte[] saved;
+
+        Cut(ByteBuffer body, int count) {
+            this.body = body;
+            this.saved = new byte[count];
+        }
+
+        void preserve(int accountId, long valueAtCut) {
+            if (saved[accountId] == 0) {
+                saved[accountId] = 1;
+                body.putLong(accountId * Long.BYTES, valueAtCut);
+            }
+        }
+    }
+}
+
+/*
+ * Builds a long log history, takes a snapshot while writers are running, adds a short tail after it, and then
+ * compares a restart from the snapshot with a restart from the full log. The restarts alternate their order and
+ * the first round of each is a warmup, so neither path is measured cold (JIT, page cache) while the other is warm.
+ */
+class SnapshotExample {
+    private static final int ACCOUNTS = 100_000;
+    private static final int WRITERS = 64; // Each waits for its own fsync, so many writers make the group commits large
+    private static final int HISTORY_OPS_PER_WRITER = 32_000; // About 2M records before the snapshot
+    private static final int TAIL_OPS_PER_WRITER = 1_000;     // At most 64k records after it
+    private static final int WARMUP_ROUNDS = 1;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("ledger-snapshot");
+        Path logFile = directory.resolve("ledger.wal");
+        Path snapshotFile = directory.resolve("ledger.snapshot");
+
+        long[] balances = new long[ACCOUNTS];
+        try (DurableLedger ledger = DurableLedger.open(ACCOUNTS, logFile, 100, TimeUnit.MICROSECONDS)) {
+            runWriters(ledger, HISTORY_OPS_PER_WRITER);
+
+            Thread[] tail = startWriters(ledger, TAIL_OPS_PER_WRITER);
+            long start = System.nanoTime();
+            ledger.checkpoint(snapshotFile); // Tail writers keep running meanwhile
+            System.out.printf("Snapshot taken in %d ms while writers were running%n", (System.nanoTime() - start) / 1_000_000);
+            for (Thread writer : tail) {
+                writer.join();
+            }
+            for (int i = 0; i < ACCOUNTS; i++) {
+                balances[i] = ledger.getBalance(i);
+            }
+        }
+        System.out.printf("Log: %d records, snapshot: %d accounts%n", Files.size(logFile) / WriteAheadLog.RECORD_SIZE, ACCOUNTS);
+
+        long bestFromSnapshot = Long.MAX_VALUE;
+        long bestFromLog = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            boolean snapshotFirst = round % 2 == 0;
+            long fromSnapshot = 0;
+            long fromLog = 0;
+            for (int path = 0; path < 2; path++) {
+                if ((path == 0) == snapshotFirst) {
+                    fromSnapshot = restart(logFile, snapshotFile, balances);
+                } else {
+                    fromLog = restart(logFile, null, balances);
+                }
+            }
+            if (round >= WARMUP_ROUNDS) {
+                bestFromSnapshot = Math.min(bestFromSnapshot, fromSnapshot);
+                bestFromLog = Math.min(bestFromLog, fromLog);
+            }
+        }
+        System.out.printf("Restart from snapshot + log tail: %d ms (best of %d)%n", bestFromSnapshot / 1_000_000, MEASURED_ROUNDS);
+        System.out.printf("Restart from full log:            %d ms (best of %d)%n", bestFromLog / 1_000_000, MEASURED_ROUNDS);
+
+        Files.delete(snapshotFile);
+        Files.delete(logFile);
+        Files.delete(directory);
+    }
+
+    private static void runWriters(DurableLedger ledger, int opsPerWriter) throws InterruptedException {
+        for (Thread writer : startWriters(ledger, opsPerWriter)) {
+            writer.join();
+        }
+    }
+
+    private static Thread[] startWriters(DurableLedger ledger, int opsPerWriter) {
+        Thread[] writers = new Thread[WRITERS];
+        for (int t = 0; t < writers.length; t++) {
+            writers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < opsPerWriter; i++) {
+                    if (!ledger.transfer(random.nextInt(ACCOUNTS), random.nextInt(ACCOUNTS), 1)) {
+                        ledger.deposit(random.nextInt(ACCOUNTS), 10);
+                    }
+                }
+            }, "Writer" + t);
+            writers[t].start();
+        }
+        return writers;
+    }
+
+    // Reopens the ledger (from the snapshot if one is given), checks every balance, and returns the open time in ns
+    private static long restart(Path logFile, Path snapshotFile, long[] expected) throws IOException {
+        long start = System.nanoTime();
+        try (DurableLedger ledger = snapshotFile == null
+                ? DurableLedger.open(ACCOUNTS, logFile, 0, TimeUnit.MICROSECONDS)
+                : DurableLedger.open(ACCOUNTS, logFile, snapshotFile, 0, TimeUnit.MICROSECONDS)) {
+            long elapsed = System.nanoTime() - start;
+            check(ledger, expected);
+            return elapsed;
+        }
+    }
+
+    private static void check(DurableLedger ledger, long[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (ledger.getBalance(i) != expected[i]) {
+                throw new IllegalStateException("Balance mismatch for account " + i);
+            }
+        }
+    }
+}
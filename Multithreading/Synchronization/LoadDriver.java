@@ -0,0 +1,161 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Virtual-Thread Load Driver for BankAccount:
+ *
+ * Purpose:
+ * Example.main starts nine hand-written threads; this driver instead runs up to millions of concurrent clients,
+ * each on its own virtual thread, with a configurable number of accounts, hot-account skew and operation mix,
+ * and reports throughput, latency percentiles and virtual-thread pinning.
+ *
+ * Usage (all arguments optional, key=value):
+ *   java OOPS.Multithreading.Synchronization.LoadDriver clients=1000000 accounts=1000 opsPerClient=10 zipf=1.1 \
+ *        deposit=30 withdraw=30 transfer=20 read=20
+ *
+ * Notes:
+ * 1. Virtual threads (Java 21+):
+ *    - Executors.newVirtualThreadPerTaskExecutor() starts one cheap virtual thread per task; they are mounted
+ *      on a small pool of carrier (platform) threads, so a million of them can exist at once.
+ *
+ * 2. Hot-account skew (Zipf):
+ *    - Account k is picked with probability proportional to 1 / (k + 1)^zipf. zipf = 0 is uniform,
+ *      zipf around 1 means a handful of accounts receive most of the traffic (like real payment systems).
+ *
+ * 3. Pinning:
+ *    - While a virtual thread is inside a synchronized block it is pinned to its carrier: if it blocks there
+ *      (or waits to enter a contended monitor), the carrier thread blocks with it and cannot run other clients.
+ *    - The driver listens to the JFR events jdk.VirtualThreadPinned (parked while pinned) and
+ *      jdk.JavaMonitorEnter from virtual threads (blocked entering a monitor, which also holds the carrier),
+ *      and reports how often each happened. Run with -Djdk.tracePinnedThreads=full for stack traces.
+ */
+public class LoadDriver {
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        int clients = Integer.parseInt(options.getOrDefault("clients", "100000"));
+        int accountCount = Integer.parseInt(options.getOrDefault("accounts", "1000"));
+        int opsPerClient = Integer.parseInt(options.getOrDefault("opsPerClient", "10"));
+        double zipf = Double.parseDouble(options.getOrDefault("zipf", "1.1"));
+        int depositWeight = Integer.parseInt(options.getOrDefault("deposit", "30"));
+        int withdrawWeight = Integer.parseInt(options.getOrDefault("withdraw", "30"));
+        int transferWeight = Integer.parseInt(options.getOrDefault("transfer", "20"));
+        int readWeight = Integer.parseInt(options.getOrDefault("read", "20"));
+        int totalWeight = depositWeight + withdrawWeight + transferWeight + readWeight;
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("The operation mix needs at least one positive weight");
+        }
+
+        BankAccount[] accounts = new BankAccount[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accounts[i] = new BankAccount(1_000_000);
+        }
+        ZipfSampler sampler = new ZipfSampler(accountCount, zipf);
+        LatencyHistogram latency = new LatencyHistogram();
+
+        // Pinning detection through JFR
+        LongAdder pinnedParks = new LongAdder();
+        LongAdder pinnedMonitorEnters = new LongAdder();
+        RecordingStream recording = new RecordingStream();
+        recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+        recording.enable("jdk.JavaMonitorEnter").withThreshold(Duration.ofMillis(1));
+        recording.onEvent("jdk.VirtualThreadPinned", event -> pinnedParks.increment());
+        recording.onEvent("jdk.JavaMonitorEnter", event -> {
+            if (event.getThread() != null && event.getThread().isVirtual()) {
+                pinnedMonitorEnters.increment();
+            }
+        });
+        recording.startAsync();
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // BankAccount logs every operation
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < opsPerClient; i++) {
+                        BankAccount account = accounts[sampler.next(random)];
+                        int dice = random.nextInt(totalWeight);
+                        long opStart = System.nanoTime();
+                        if (dice < depositWeight) {
+                            account.deposit(1);
+                        } else if ((dice -= depositWeight) < withdrawWeight) {
+                            account.withdraw(1);
+                        } else if ((dice -= withdrawWeight) < transferWeight) {
+                            account.transfer(accounts[sampler.next(random)], 1);
+                        } else {
+                            account.getBalance();
+                        }
+                        latency.record(System.nanoTime() - opStart);
+                    }
+                });
+            }
+        } // close() waits for every client to finish
+        long elapsed = System.nanoTime() - start;
+
+        EventLog.DEFAULT.flush();
+        System.setOut(console);
+        recording.stop(); // Flushes pending JFR events to the handlers
+        recording.close();
+
+        long operations = (long) clients * opsPerClient;
+        System.out.printf("Clients: %,d, accounts: %,d, ops/client: %d, zipf: %.2f, mix d/w/t/r: %d/%d/%d/%d%n",
+                clients, accountCount, opsPerClient, zipf, depositWeight, withdrawWeight, transferWeight, readWeight);
+        System.out.printf("Throughput: %,.0f ops/sec (%,d ops in %d ms)%n",
+                operations * 1e9 / elapsed, operations, elapsed / 1_000_000);
+        System.out.printf("Latency p50: %,d ns, p99: %,d ns, p99.9: %,d ns, max: %,d ns%n",
+                latency.percentile(0.50), latency.percentile(0.99), latency.percentile(0.999), latency.getMax());
+        System.out.printf("Pinned parks: %,d, monitor enters blocking a carrier (>1ms): %,d, dropped log events: %,d%n",
+                pinnedParks.sum(), pinnedMonitorEnters.sum(), EventLog.DEFAULT.getDropped());
+    }
+
+    // Samples account indexes with Zipf-distributed probabilities (binary search over the cumulative distribution)
+    static final class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int size, double exponent) {
+            cumulative = new double[size];
+            double sum = 0;
+            for (int k = 0; k < size; k++) {
+                sum += 1.0 / Math.pow(k + 1, exponent);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < size; k++) {
+                cumulative[k] /= sum;
+            }
+        }
+
+        int next(ThreadLocalRandom random) {
+            double u = random.nextDouble();
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulative[middle] < u) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
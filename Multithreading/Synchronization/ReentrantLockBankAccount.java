@@ -0,0 +1,92 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ReentrantLock Variant of BankAccount:
+ *
+ * Purpose:
+ * Same operations as BankAccount, but guarded by an explicit ReentrantLock instead of the instance monitor,
+ * to compare the two kinds of locks under the same workload (see the JMH module's AccountStrategyBenchmark).
+ *
+ * Notes:
+ * - Transfers take both locks in account id order, like BankAccount.transfer, so they can never deadlock.
+ * - The lock is reentrant, so a transfer to the same account simply takes it twice.
+ */
+class ReentrantLockBankAccount implements Account<ReentrantLockBankAccount> {
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private final int id = NEXT_ID.getAndIncrement();
+    private final ReentrantLock lock = new ReentrantLock();
+    private int balance;
+
+    public ReentrantLockBankAccount(int initialBalance) {
+        this.balance = initialBalance;
+    }
+
+    @Override
+    public void deposit(int amount) {
+        lock.lock();
+        try {
+            EventLog.DEFAULT.record(EventLog.DEPOSIT, id, -1, amount);
+            balance += amount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void withdraw(int amount) {
+        lock.lock();
+        try {
+            EventLog.DEFAULT.record(EventLog.WITHDRAW, id, -1, amount);
+            if (balance >= amount) {
+                balance -= amount;
+            } else {
+                EventLog.DEFAULT.record(EventLog.INSUFFICIENT_FUNDS, id, -1, amount);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void transfer(ReentrantLockBankAccount destination, int amount) {
+        ReentrantLockBankAccount first = id <= destination.id ? this : destination;
+        ReentrantLockBankAccount second = first == this ? destination : this;
+
+        first.lock.lock();
+        try {
+            second.lock.lock(); // Reentrant, so a transfer to itself is fine
+            try {
+                EventLog.DEFAULT.record(EventLog.TRANSFER, id, destination.id, amount);
+                if (balance >= amount) {
+                    balance -= amount;
+                    destination.balance += amount;
+                } else {
+                    EventLog.DEFAULT.record(EventLog.TRANSFER_FAILED, id, destination.id, amount);
+                }
+            } finally {
+                second.lock.unlock();
+            }
+        } finally {
+            first.lock.unlock();
+        }
+    }
+
+    @Override
+    public int getBalance() {
+        lock.lock();
+        try {
+            return balance;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ReentrantLockBankAccount-" + id;
+    }
+}
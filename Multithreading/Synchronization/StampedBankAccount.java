@@ -0,0 +1,136 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * StampedLock Variant of BankAccount (optimistic reads):
+ *
+ * Purpose:
+ * Same operations as BankAccount, but guarded by a StampedLock so that balance queries never block and never
+ * write to shared memory, while still always returning a value that some writer actually committed.
+ *
+ * Notes:
+ * 1. Optimistic read:
+ *    - tryOptimisticRead() returns a stamp (a version number) without acquiring anything.
+ *    - The reader copies the fields it needs, then validate(stamp) checks that no writer ran in between.
+ *    - Only if validation fails does the reader fall back to a real (pessimistic) read lock.
+ *    - Readers therefore do not bounce the lock's cache line between cores the way a monitor or read lock would.
+ *
+ * 2. Writers:
+ *    - deposit/withdraw take the write lock, which bumps the stamp and makes concurrent optimistic reads retry.
+ *    - transfer takes both write locks ordered by account id (StampedLock is not reentrant, so it locks the fields
+ *      directly instead of calling withdraw/deposit).
+ *
+ * 3. When to prefer it over a volatile field:
+ *    - For a single int (like BankAccount.balance) a volatile read is already enough.
+ *    - The stamp pattern pays off once a reader needs several fields that must be consistent with each other,
+ *      here the balance together with the number of operations applied to it.
+ */
+class StampedBankAccount implements Account<StampedBankAccount> {
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private final int id = NEXT_ID.getAndIncrement();
+    private final StampedLock lock = new StampedLock();
+    private int balance;
+    private long operations; // Number of deposits/withdrawals/transfers applied, read together with the balance
+
+    public StampedBankAccount(int initialBalance) {
+        this.balance = initialBalance;
+    }
+
+    @Override
+    public void deposit(int amount) {
+        long stamp = lock.writeLock();
+        try {
+            EventLog.DEFAULT.record(EventLog.DEPOSIT, id, -1, amount);
+            balance += amount;
+            operations++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void withdraw(int amount) {
+        long stamp = lock.writeLock();
+        try {
+            EventLog.DEFAULT.record(EventLog.WITHDRAW, id, -1, amount);
+            if (balance >= amount) {
+                balance -= amount;
+                operations++;
+            } else {
+                EventLog.DEFAULT.record(EventLog.INSUFFICIENT_FUNDS, id, -1, amount);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void transfer(StampedBankAccount destination, int amount) {
+        if (destination == this) {
+            return; // Nothing moves, and a non-reentrant lock must not be taken twice
+        }
+        StampedBankAccount first = id < destination.id ? this : destination;
+        StampedBankAccount second = first == this ? destination : this;
+
+        long firstStamp = first.lock.writeLock();
+        try {
+            long secondStamp = second.lock.writeLock();
+            try {
+                EventLog.DEFAULT.record(EventLog.TRANSFER, id, destination.id, amount);
+                if (balance >= amount) {
+                    balance -= amount;
+                    operations++;
+                    destination.balance += amount;
+                    destination.operations++;
+                } else {
+                    EventLog.DEFAULT.record(EventLog.TRANSFER_FAILED, id, destination.id, amount);
+                }
+            } finally {
+                second.lock.unlockWrite(secondStamp);
+            }
+        } finally {
+            first.lock.unlockWrite(firstStamp);
+        }
+    }
+
+    // Optimistic read: no locking unless a writer interfered
+    @Override
+    public int getBalance() {
+        long stamp = lock.tryOptimisticRead();
+        int current = balance;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                current = balance;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return current;
+    }
+
+    // Balance and operation count from the same moment in time: {balance, operations}
+    public long[] getBalanceAndOperations() {
+        long stamp = lock.tryOptimisticRead();
+        long currentBalance = balance;
+        long currentOperations = operations;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                currentBalance = balance;
+                currentOperations = operations;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return new long[]{currentBalance, currentOperations};
+    }
+
+    @Override
+    public String toString() {
+        return "StampedBankAccount-" + id;
+    }
+}
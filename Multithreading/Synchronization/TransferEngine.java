@@ -0,0 +1,268 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Batch Transfer Engine:
+ *
+ * Purpose:
+ * Applies a whole batch of transfers to an AccountLedger in parallel, without taking a lock per transfer,
+ * while producing exactly the same balances as applying the batch one by one in submission order.
+ *
+ * Notes:
+ * 1. Conflict-free groups ("waves"):
+ *    - Two transfers conflict if they touch a common account.
+ *    - Every transfer is placed in the first wave after the last wave that used either of its accounts:
+ *          wave(t) = max(lastWave[from], lastWave[to]) + 1
+ *    - Transfers inside one wave touch disjoint accounts, so they can run in parallel with no locking at all.
+ *    - For any single account, its transfers land in strictly increasing waves in submission order,
+ *      so every account sees its operations in the same order as sequential execution.
+ *      (A transfer's success only depends on the balance of its source account, so the results match too.)
+ *
+ * 2. Execution:
+ *    - Waves run one after another; each wave is split across a ForkJoinPool.
+ *    - ForkJoinPool.invoke() makes all writes of one wave visible before the next wave starts.
+ *
+ * 3. Hot accounts:
+ *    - A batch where every transfer touches the same account degenerates into one transfer per wave,
+ *      which is plain sequential execution (still without any lock).
+ *
+ * 4. getLastPlanNanos() / getLastExecuteNanos() split the time of the last batch into planning (wave assignment
+ *    and sorting, single-threaded) and executing the waves, so the two can be tuned and compared separately.
+ */
+class TransferEngine {
+    private static final int SEQUENTIAL_THRESHOLD = 1024; // Below this, a wave slice is applied on the calling thread
+
+    private final AccountLedger ledger;
+    private final ForkJoinPool pool;
+    private final int[] lastWave; // Scratch space: last wave that used each account (0 = unused in this batch)
+    private long lastPlanNanos;    // Guarded by this, like lastWave
+    private long lastExecuteNanos;
+
+    public TransferEngine(AccountLedger ledger, ForkJoinPool pool) {
+        this.ledger = ledger;
+        this.pool = pool;
+        this.lastWave = new int[ledger.size()];
+    }
+
+    public TransferEngine(AccountLedger ledger) {
+        this(ledger, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Applies the batch and returns, for each transfer in submission order, whether it succeeded.
+     * Batches must not be submitted concurrently, and the accounts must not be modified through the ledger while a batch runs.
+     *
+     * @param transfers the transfers, in the order they would be applied sequentially
+     * @return true at index i if transfers.get(i) succeeded, false if the source had insufficient funds
+     */
+    public synchronized boolean[] submit(List<Transfer> transfers) {
+        int count = transfers.size();
+        long start = System.nanoTime();
+        Transfer[] batch = transfers.toArray(new Transfer[0]);
+        boolean[] results = new boolean[count];
+
+        // Reject bad ids before touching lastWave, so a failed batch cannot leave stale waves behind for the next one
+        for (Transfer transfer : batch) {
+            checkId(transfer.fromId, transfer);
+            checkId(transfer.toId, transfer);
+        }
+
+        // Assign every transfer to a wave
+        int[] waveOf = new int[count];
+        int waves = 0;
+        for (int i = 0; i < count; i++) {
+            Transfer transfer = batch[i];
+            int wave = Math.max(lastWave[transfer.fromId], lastWave[transfer.toId]) + 1;
+            lastWave[transfer.fromId] = wave;
+            lastWave[transfer.toId] = wave;
+            waveOf[i] = wave;
+            waves = Math.max(waves, wave);
+        }
+        for (Transfer transfer : batch) {
+            lastWave[transfer.fromId] = 0; // Reset the scratch space for the next batch
+            lastWave[transfer.toId] = 0;
+        }
+
+        // Counting sort of transfer indices by wave, keeping submission order inside a wave
+        int[] waveStart = new int[waves + 2];
+        for (int i = 0; i < count; i++) {
+            waveStart[waveOf[i] + 1]++;
+        }
+        for (int w = 1; w < waveStart.length; w++) {
+            waveStart[w] += waveStart[w - 1];
+        }
+        int[] next = waveStart.clone();
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[next[waveOf[i]]++] = i;
+        }
+
+        long planned = System.nanoTime();
+        lastPlanNanos = planned - start;
+
+        // Run the waves one after another, each one in parallel
+        for (int w = 1; w <= waves; w++) {
+            int from = waveStart[w];
+            int to = waveStart[w + 1];
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                apply(batch, order, results, from, to);
+            } else {
+                pool.invoke(new WaveSlice(batch, order, results, from, to));
+            }
+        }
+        lastExecuteNanos = System.nanoTime() - planned;
+        return results;
+    }
+
+    // Time the last submit() spent assigning transfers to waves
+    public synchronized long getLastPlanNanos() {
+        return lastPlanNanos;
+    }
+
+    // Time the last submit() spent applying the waves
+    public synchronized long getLastExecuteNanos() {
+        return lastExecuteNanos;
+    }
+
+    private void checkId(int accountId, Transfer transfer) {
+        if (accountId < 0 || accountId >= lastWave.length) {
+            throw new IndexOutOfBoundsException(transfer + " uses an account outside the ledger of size " + lastWave.length);
+        }
+    }
+
+    private void apply(Transfer[] batch, int[] order, boolean[] results, int from, int to) {
+        for (int k = from; k < to; k++) {
+            int i = order[k];
+            Transfer transfer = batch[i];
+            results[i] = ledger.transferUnlocked(transfer.fromId, transfer.toId, transfer.amount);
+        }
+    }
+
+    // Fork-join task applying one slice of a wave, splitting itself in halves until the slice is small
+    @SuppressWarnings("serial") // Fork-join tasks are never serialized
+    private class WaveSlice extends RecursiveAction {
+        private final Transfer[] batch;
+        private final int[] order;
+        private final boolean[] results;
+        private final int from;
+        private final int to;
+
+        WaveSlice(Transfer[] batch, int[] order, boolean[] results, int from, int to) {
+            this.batch = batch;
+            this.order = order;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                apply(batch, order, results, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new WaveSlice(batch, order, results, from, middle),
+                    new WaveSlice(batch, order, results, middle, to));
+        }
+    }
+}
+
+// A single transfer of a batch, between two dense ledger account ids
+final class Transfer {
+    final int fromId;
+    final int toId;
+    final long amount;
+
+    public Transfer(int fromId, int toId, long amount) {
+        this.fromId = fromId;
+        this.toId = toId;
+        this.amount = amount;
+    }
+
+    @Override
+    public String toString() {
+        return "Transfer(" + fromId + " -> " + toId + ", " + amount + ")";
+    }
+}
+
+/*
+ * Runs one random batch through the engine and through sequential locked transfers, on fresh ledgers every round,
+ * and checks that both give the same results. The first rounds are warmup (JIT, page faults on the off-heap slots)
+ * and are not reported; the engine's time is split into planning and executing the waves.
+ */
+class TransferEngineExample {
+    private static final int ACCOUNTS = 100_000;
+    private static final int TRANSFERS = 1_000_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        List<Transfer> batch = new ArrayList<>(TRANSFERS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            batch.add(new Transfer(random.nextInt(ACCOUNTS), random.nextInt(ACCOUNTS), 1 + random.nextInt(150)));
+        }
+
+        long planNanos = 0;
+        long executeNanos = 0;
+        long sequentialNanos = 0;
+        int mismatches = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            AccountLedger parallel = newLedger();
+            AccountLedger sequential = newLedger();
+
+            TransferEngine engine = new TransferEngine(parallel);
+            boolean[] results = engine.submit(batch);
+
+            boolean[] expected = new boolean[TRANSFERS];
+            long start = System.nanoTime();
+            for (int i = 0; i < TRANSFERS; i++) {
+                Transfer transfer = batch.get(i);
+                expected[i] = sequential.transfer(transfer.fromId, transfer.toId, transfer.amount);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            mismatches += countMismatches(results, expected, parallel, sequential);
+            if (round >= WARMUP_ROUNDS) {
+                planNanos += engine.getLastPlanNanos();
+                executeNanos += engine.getLastExecuteNanos();
+                sequentialNanos += elapsed;
+            }
+        }
+
+        System.out.printf("Engine: plan %d ms + execute %d ms = %d ms, sequential with locks: %d ms "
+                        + "(average of %d rounds after %d warmup), mismatches: %d%n",
+                planNanos / MEASURED_ROUNDS / 1_000_000, executeNanos / MEASURED_ROUNDS / 1_000_000,
+                (planNanos + executeNanos) / MEASURED_ROUNDS / 1_000_000, sequentialNanos / MEASURED_ROUNDS / 1_000_000,
+                MEASURED_ROUNDS, WARMUP_ROUNDS, mismatches);
+    }
+
+    private static AccountLedger newLedger() {
+        AccountLedger ledger = new AccountLedger(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ledger.deposit(i, 100);
+        }
+        return ledger;
+    }
+
+    private static int countMismatches(boolean[] results, boolean[] expected, AccountLedger parallel, AccountLedger sequential) {
+        int mismatches = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != expected[i]) {
+                mismatches++;
+            }
+        }
+        for (int i = 0; i < ACCOUNTS; i++) {
+            if (parallel.getBalance(i) != sequential.getBalance(i)) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+}
@@ -0,0 +1,73 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark: Durable Ledger Throughput at Different Group-Commit Windows
+ *
+ * Purpose:
+ * Runs random durable transfers from many threads and reports ops/sec, the amortized cost per operation
+ * and the average latency a caller sees for several commit windows,
+ * then reopens the log to check that replay rebuilds the same balances.
+ *
+ * Usage:
+ *   java OOPS.Multithreading.Synchronization.WalBenchmark [threads] [secondsPerWindow] [directory]
+ *
+ * Notes:
+ * - A window of 0 still groups every record that arrives while the previous fsync is in progress.
+ * - Longer windows put more records into one fsync (higher throughput) but make every caller wait longer (latency).
+ * - Numbers depend heavily on the disk: a real fsync on an SSD costs tens of microseconds to milliseconds.
+ */
+public class WalBenchmark {
+    private static final int ACCOUNTS = 10_000;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        Path directory = args.length > 2 ? Path.of(args[2]) : Files.createTempDirectory("wal-benchmark");
+
+        long[] windowsMicros = {0, 100, 1_000, 5_000};
+        System.out.printf("%12s %14s %22s %18s%n", "window (us)", "ops/sec", "amortized us/op", "avg latency (us)");
+        for (long windowMicros : windowsMicros) {
+            Path logFile = directory.resolve("ledger-" + windowMicros + ".wal");
+            Files.deleteIfExists(logFile);
+
+            // Fund the accounts with no commit window, the measured run replays this on open
+            try (DurableLedger ledger = DurableLedger.open(ACCOUNTS, logFile, 0, TimeUnit.MICROSECONDS)) {
+                for (int i = 0; i < ACCOUNTS; i++) {
+                    ledger.deposit(i, 1_000);
+                }
+            }
+
+            long[] balances = new long[ACCOUNTS];
+            long ops;
+            try (DurableLedger ledger = DurableLedger.open(ACCOUNTS, logFile, windowMicros, TimeUnit.MICROSECONDS)) {
+                ops = LedgerBenchmark.run(threads, seconds, () -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    ledger.transfer(random.nextInt(ACCOUNTS), random.nextInt(ACCOUNTS), 1);
+                });
+                for (int i = 0; i < ACCOUNTS; i++) {
+                    balances[i] = ledger.getBalance(i);
+                }
+            }
+
+            // Restart: replay the log and compare
+            try (DurableLedger reopened = DurableLedger.open(ACCOUNTS, logFile, windowMicros, TimeUnit.MICROSECONDS)) {
+                for (int i = 0; i < ACCOUNTS; i++) {
+                    if (reopened.getBalance(i) != balances[i]) {
+                        throw new IllegalStateException("Replay mismatch for account " + i);
+                    }
+                }
+            }
+
+            double opsPerSecond = (double) ops / seconds;
+            System.out.printf("%12d %14.0f %22.2f %18.2f%n", windowMicros, opsPerSecond,
+                    1_000_000.0 / opsPerSecond, threads * 1_000_000.0 / opsPerSecond);
+            Files.deleteIfExists(logFile);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Write-Ahead Log with Group Commit:
+ *
+ * Purpose:
+ * Makes AccountLedger mutations durable. Every successful deposit, withdraw and transfer is appended as a fixed-size
+ * binary record, and a caller only returns once its record has been forced to disk.
+ *
+ * Notes:
+ * 1. Record layout (24 bytes, native byte order):
+ *      int op | int accountId | int counterpartId | long amount | int CRC32 of the first 20 bytes
+ *    Record n always starts at byte n * RECORD_SIZE, so a sequence number doubles as a file position.
+ *
+ * 2. Group commit:
+ *    - A writer first calls reserve(), before taking any ledger lock; this is the only call that waits for room
+ *      in the batch. append() then only copies the record into the reserved space (under a short lock) and returns
+ *      its sequence number, so it never blocks while the caller holds ledger locks.
+ *    - A writer that finds it has nothing to log after all (e.g. insufficient funds) calls cancelReservation().
+ *    - A single flusher thread waits until the batch has records, then lingers for up to the commit window
+ *      (or until the batch is full) so more writers can join, and writes the batch with one write() and one force().
+ *    - awaitDurable(sequence) blocks the caller until the batch containing its record has been forced.
+ *    - One fsync is shared by every record in the batch, so its cost is amortized over all of them.
+ *    - Two batch buffers are swapped, so writers keep appending into one while the other is being written.
+ *
+ * 3. Recovery:
+ *    - open() scans the file and cuts off a torn tail (a partial record or a record whose checksum does not match),
+ *      which is what a crash in the middle of a write leaves behind.
+ *    - replay() applies the records to a ledger as plain balance changes; only successful operations are logged,
+ *      so no funds check is needed during replay.
+ *
+ * 4. Errors:
+ *    - An I/O error in the flusher is reported to every waiting writer as an UncheckedIOException,
+ *      and the log refuses further appends.
+ */
+class WriteAheadLog implements AutoCloseable {
+    static final int DEPOSIT = 0;
+    static final int WITHDRAW = 1;
+    static final int TRANSFER = 2;
+
+    static final int RECORD_SIZE = 24;
+    private static final int PAYLOAD_SIZE = 20;
+
+    private final FileChannel channel;
+    private final long commitWindowNanos;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition(); // Flusher waits here for records
+    private final Condition durable = lock.newCondition();    // Writers wait here for their fsync
+    private final Condition batchNotFull = lock.newCondition(); // Writers wait here in reserve() when the batch is full
+
+    private ByteBuffer filling;  // Batch currently receiving records
+    private ByteBuffer flushing; // Batch currently being written by the flusher
+    private final CRC32 crc = new CRC32();
+    private final int maxBatchRecords;
+    private int reserved;           // Records promised by reserve() but not appended yet
+    private long nextSequence;      // Sequence of the next appended record
+    private long durableSequence;   // Every sequence below this is on disk
+    private IOException failure;
+    private boolean closed;
+    private final Thread flusher;
+
+    private WriteAheadLog(FileChannel channel, long validRecords, long commitWindowNanos, int maxBatchRecords) {
+        this.channel = channel;
+        this.commitWindowNanos = commitWindowNanos;
+        this.maxBatchRecords = maxBatchRecords;
+        this.filling = ByteBuffer.allocate(maxBatchRecords * RECORD_SIZE).order(ByteOrder.nativeOrder());
+        this.flushing = ByteBuffer.allocate(maxBatchRecords * RECORD_SIZE).order(ByteOrder.nativeOrder());
+        this.nextSequence = validRecords;
+        this.durableSequence = validRecords;
+        this.flusher = new Thread(this::flushLoop, "WriteAheadLog-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Opens (or creates) a log file, truncating a torn tail left by a crash.
+     *
+     * @param commitWindow    how long the flusher waits for more writers before forcing a batch (0 = flush immediately)
+     * @param maxBatchRecords a batch is flushed as soon as it holds this many records
+     */
+    static WriteAheadLog open(Path file, long commitWindow, TimeUnit unit, int maxBatchRecords) throws IOException {
+        if (maxBatchRecords <= 0) {
+            throw new IllegalArgumentException("maxBatchRecords must be positive: " + maxBatchRecords);
+        }
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long validRecords = scan(channel, 0, null);
+        channel.truncate(validRecords * RECORD_SIZE);
+        channel.force(true);
+        return new WriteAheadLog(channel, validRecords, unit.toNanos(commitWindow), maxBatchRecords);
+    }
+
+    /**
+     * Reserves room for one record in the current batch, waiting while the batch is full.
+     * Must be called before taking the ledger locks, and followed by exactly one append() or cancelReservation().
+     *
+     * @throws UncheckedIOException  if the log has failed
+     * @throws IllegalStateException if the log is closed
+     */
+    void reserve() {
+        lock.lock();
+        try {
+            while (pendingRecords() >= maxBatchRecords && failure == null && !closed) {
+                batchNotFull.awaitUninterruptibly();
+            }
+            ensureWritable();
+            reserved++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Gives back a reservation that will not be used
+    void cancelReservation() {
+        lock.lock();
+        try {
+            releaseReservation();
+            batchNotFull.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a record into space taken by reserve() and returns its sequence number. Never blocks; does not wait
+     * for the disk either, call awaitDurable(sequence) for that. Consumes the reservation even if it throws,
+     * which it only does if the log failed or was closed since reserve(); nothing is appended in that case.
+     */
+    long append(int op, int accountId, int counterpartId, long amount) {
+        lock.lock();
+        try {
+            releaseReservation();
+            ensureWritable();
+
+            int start = filling.position();
+            filling.putInt(op).putInt(accountId).putInt(counterpartId).putLong(amount);
+            crc.reset();
+            crc.update(filling.array(), start, PAYLOAD_SIZE);
+            filling.putInt((int) crc.getValue());
+
+            if (filling.position() == RECORD_SIZE || pendingRecords() >= maxBatchRecords) {
+                batchReady.signal(); // The first record starts the commit window, a full batch ends it
+            }
+            return nextSequence++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Blocks until the record with the given sequence number has been forced to disk
+    void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence <= sequence) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Write-ahead log failed", failure);
+                }
+                durable.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Blocks until every record before the given file position (e.g. one returned by endPosition()) is on disk
+    void awaitDurablePosition(long position) {
+        if (position >= RECORD_SIZE) {
+            awaitDurable(position / RECORD_SIZE - 1);
+        }
+    }
+
+    // File position just after the last appended record (the position a snapshot would resume replay from)
+    long endPosition() {
+        lock.lock();
+        try {
+            return nextSequence * RECORD_SIZE;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies every record from the given file position to the end of the log to the ledger.
+     *
+     * @return the number of records applied
+     */
+    long replay(AccountLedger ledger, long fromPosition) throws IOException {
+        return scan(channel, fromPosition, ledger) - fromPosition / RECORD_SIZE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            batchReady.signal();
+            while (durableSequence < nextSequence && failure == null) {
+                durable.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    // Records in the current batch plus the ones reserved for it
+    private int pendingRecords() {
+        return filling.position() / RECORD_SIZE + reserved;
+    }
+
+    private void releaseReservation() {
+        if (reserved == 0) {
+            throw new IllegalStateException("No reservation to use, call reserve() first");
+        }
+        reserved--;
+    }
+
+    private void ensureWritable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log failed", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long batchEnd;
+            lock.lock();
+            try {
+                while (filling.position() == 0) {
+                    if (closed) {
+                        return;
+                    }
+                    batchReady.awaitUninterruptibly();
+                }
+
+                // Linger so that more writers can join this batch
+                long remaining = commitWindowNanos;
+                while (remaining > 0 && pendingRecords() < maxBatchRecords && !closed) {
+                    try {
+                        remaining = batchReady.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+
+                ByteBuffer full = filling;
+                filling = flushing;
+                flushing = full;
+                batchEnd = nextSequence;
+                batchNotFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                flushing.flip();
+                long position = (batchEnd - flushing.remaining() / RECORD_SIZE) * RECORD_SIZE;
+                while (flushing.hasRemaining()) {
+                    position += channel.write(flushing, position);
+                }
+                channel.force(false); // One fsync for the whole batch
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                flushing.clear();
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durableSequence = batchEnd;
+                }
+                durable.signalAll();
+                batchNotFull.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /*
+     * Reads records from the given position; applies them to the ledger if one is given.
+     * Returns the number of valid records from the start of the file up to the first torn or corrupt record.
+     */
+    private static long scan(FileChannel channel, long fromPosition, AccountLedger ledger) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 4096).order(ByteOrder.nativeOrder());
+        CRC32 checksum = new CRC32();
+        long position = fromPosition;
+        long size = channel.size();
+        while (position + RECORD_SIZE <= size) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), (size - position) / RECORD_SIZE * RECORD_SIZE));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+            while (buffer.remaining() >= RECORD_SIZE) {
+                int start = buffer.position();
+                int op = buffer.getInt();
+                int accountId = buffer.getInt();
+                int counterpartId = buffer.getInt();
+                long amount = buffer.getLong();
+                int storedChecksum = buffer.getInt();
+                checksum.reset();
+                checksum.update(buffer.array(), start, PAYLOAD_SIZE);
+                if ((int) checksum.getValue() != storedChecksum) {
+                    return position / RECORD_SIZE; // Torn or corrupt record: everything from here on is discarded
+                }
+                if (ledger != null) {
+                    apply(ledger, op, accountId, counterpartId, amount);
+                }
+                position += RECORD_SIZE;
+            }
+        }
+        return position / RECORD_SIZE;
+    }
+
+    private static void apply(AccountLedger ledger, int op, int accountId, int counterpartId, long amount) {
+        switch (op) {
+            case DEPOSIT:
+                ledger.deposit(accountId, amount);
+                break;
+            case WITHDRAW:
+                ledger.deposit(accountId, -amount);
+                break;
+            case TRANSFER:
+                ledger.deposit(accountId, -amount);
+                ledger.deposit(counterpartId, amount);
+                break;
+            default:
+                throw new IllegalStateException("Unknown log record type: " + op);
+        }
+    }
+}
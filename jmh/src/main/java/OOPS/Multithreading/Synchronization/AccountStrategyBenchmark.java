@@ -0,0 +1,185 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH Benchmark: BankAccount Concurrency Strategies
+ *
+ * Purpose:
+ * Measures deposit, withdraw and transfer throughput for every account implementation in this package:
+ * - synchronized:  BankAccount (instance monitor + lock objects)
+ * - reentrantLock: ReentrantLockBankAccount
+ * - stampedLock:   StampedBankAccount
+ * - cas:           CasBankAccount
+ * - striped:       AccountLedger (off-heap slots, striped locks)
+ * under low contention (operations spread over 10,000 accounts) and high contention (all on 4 hot accounts).
+ *
+ * Usage:
+ *   java -jar jmh/target/benchmarks.jar AccountStrategyBenchmark -t 8 -rf json -rff results.json
+ *   java -cp jmh/target/benchmarks.jar OOPS.Multithreading.Synchronization.AccountStrategySweep [results.json]
+ *       (every thread count 1, 2, 4, ... up to 2 x cores, into one JSON file)
+ *
+ * Notes:
+ * - Every (strategy, contention) pair runs in its own forked JVM, so each fork only ever loads one account class:
+ *   the Account calls below stay monomorphic and get inlined, as they would in an application that uses one strategy.
+ * - The accounts are recreated before every iteration, so balances never drift towards overflow or zero.
+ * - Event logging is switched off, so the shared log does not hide the differences between strategies.
+ * - The thread count is not a @Param (JMH sets it per run with -t); AccountStrategySweep loops over it instead.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AccountStrategyBenchmark {
+    private static final int LOW_CONTENTION_ACCOUNTS = 10_000;
+    private static final int HIGH_CONTENTION_ACCOUNTS = 4;
+    private static final int INITIAL_BALANCE = 1_000_000_000;
+
+    @Param({"synchronized", "reentrantLock", "stampedLock", "cas", "striped"})
+    public String strategy;
+
+    @Param({"low", "high"})
+    public String contention;
+
+    private Accounts accounts;
+    private int accountCount;
+
+    // The operations under test, addressed by account index
+    interface Accounts {
+        void deposit(int account, int amount);
+
+        void withdraw(int account, int amount);
+
+        void transfer(int from, int to, int amount);
+    }
+
+    @Setup(Level.Trial)
+    public void disableEventLog() {
+        EventLog.DEFAULT.setEnabled(false);
+    }
+
+    @Setup(Level.Iteration)
+    public void createAccounts() {
+        switch (contention) {
+            case "low":
+                accountCount = LOW_CONTENTION_ACCOUNTS;
+                break;
+            case "high":
+                accountCount = HIGH_CONTENTION_ACCOUNTS;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown contention: " + contention);
+        }
+        switch (strategy) {
+            case "synchronized":
+                accounts = new AccountArray<>(BankAccount[]::new, BankAccount::new, accountCount);
+                break;
+            case "reentrantLock":
+                accounts = new AccountArray<>(ReentrantLockBankAccount[]::new, ReentrantLockBankAccount::new, accountCount);
+                break;
+            case "stampedLock":
+                accounts = new AccountArray<>(StampedBankAccount[]::new, StampedBankAccount::new, accountCount);
+                break;
+            case "cas":
+                accounts = new AccountArray<>(CasBankAccount[]::new, CasBankAccount::new, accountCount);
+                break;
+            case "striped":
+                accounts = new Ledger(accountCount);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void enableEventLog() {
+        EventLog.DEFAULT.setEnabled(true);
+    }
+
+    @Benchmark
+    public void deposit() {
+        accounts.deposit(ThreadLocalRandom.current().nextInt(accountCount), 1);
+    }
+
+    @Benchmark
+    public void withdraw() {
+        accounts.withdraw(ThreadLocalRandom.current().nextInt(accountCount), 1);
+    }
+
+    @Benchmark
+    public void transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        accounts.transfer(random.nextInt(accountCount), random.nextInt(accountCount), 1);
+    }
+
+    // Any Account implementation, one object per account
+    private static final class AccountArray<A extends Account<A>> implements Accounts {
+        private final A[] accounts;
+
+        AccountArray(IntFunction<A[]> newArray, IntFunction<A> newAccount, int count) {
+            accounts = newArray.apply(count);
+            for (int i = 0; i < count; i++) {
+                accounts[i] = newAccount.apply(INITIAL_BALANCE);
+            }
+        }
+
+        @Override
+        public void deposit(int account, int amount) {
+            accounts[account].deposit(amount);
+        }
+
+        @Override
+        public void withdraw(int account, int amount) {
+            accounts[account].withdraw(amount);
+        }
+
+        @Override
+        public void transfer(int from, int to, int amount) {
+            accounts[from].transfer(accounts[to], amount);
+        }
+    }
+
+    // All accounts in one striped AccountLedger
+    private static final class Ledger implements Accounts {
+        private final AccountLedger ledger;
+
+        Ledger(int count) {
+            ledger = new AccountLedger(count, 64);
+            for (int i = 0; i < count; i++) {
+                ledger.deposit(i, INITIAL_BALANCE);
+            }
+        }
+
+        @Override
+        public void deposit(int account, int amount) {
+            ledger.deposit(account, amount);
+        }
+
+        @Override
+        public void withdraw(int account, int amount) {
+            ledger.withdraw(account, amount);
+        }
+
+        @Override
+        public void transfer(int from, int to, int amount) {
+            ledger.transfer(from, to, amount);
+        }
+    }
+}
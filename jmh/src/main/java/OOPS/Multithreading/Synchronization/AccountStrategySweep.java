@@ -0,0 +1,44 @@
+package OOPS.Multithreading.Synchronization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * Runs AccountStrategyBenchmark once per thread count 1, 2, 4, ... up to 2 x cores (always including 2 x cores
+ * itself, see GlobalDepositBenchmark.threadCounts) and writes all results into one JMH JSON file,
+ * the same format as -rf json. JMH cannot sweep the thread count as a @Param, hence this loop.
+ *
+ * Usage:
+ *   java -cp jmh/target/benchmarks.jar OOPS.Multithreading.Synchronization.AccountStrategySweep \
+ *       [results.json [JMH options...]]
+ * Further JMH options (e.g. -f 1 -wi 1 -i 3 -p strategy=cas) override the benchmark's defaults; -t is set here.
+ */
+public class AccountStrategySweep {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        String output = args.length > 0 ? args[0] : "account-strategies.json";
+        CommandLineOptions jmhOptions = new CommandLineOptions(args.length > 1 ? Arrays.copyOfRange(args, 1, args.length)
+                : new String[0]);
+
+        List<RunResult> results = new ArrayList<>();
+        for (int threads : GlobalDepositBenchmark.threadCounts(2 * Runtime.getRuntime().availableProcessors())) {
+            Options options = new OptionsBuilder()
+                    .parent(jmhOptions)
+                    .include(AccountStrategyBenchmark.class.getName())
+                    .threads(threads)
+                    .build();
+            results.addAll(new Runner(options).run());
+        }
+        ResultFormatFactory.getInstance(ResultFormatType.JSON, output).writeOut(results);
+        System.out.println("Results written to " + output);
+    }
+}